@@ -0,0 +1,29 @@
+package com.auth.bench;
+
+import com.auth.TodoApplication;
+import com.auth.datagen.DataGenerator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+final class BenchmarkContext {
+    private static final String USER_PREFIX = "bench-user-";
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(TodoApplication.class)
+                .profiles("bench")
+                .properties(properties)
+                .run();
+    }
+
+    static List<Long> seed(ConfigurableApplicationContext context, int users, int tasks) {
+        context.getBean(DataGenerator.class).generate(USER_PREFIX, users, tasks, 0.5, 1.0, 42);
+        return context.getBean(JdbcTemplate.class).queryForList(
+                "select id from users where username like ? order by id", Long.class, USER_PREFIX + "%");
+    }
+}
@@ -0,0 +1,72 @@
+package com.auth.bench;
+
+import com.auth.security.JwtAuthFilter;
+import com.auth.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-32b";
+
+    private JwtTokenProvider cached;
+    private JwtTokenProvider uncached;
+    private JwtAuthFilter filter;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cached = new JwtTokenProvider(SECRET, Duration.ofHours(1), 10_000, new SimpleMeterRegistry());
+        uncached = new JwtTokenProvider(SECRET, Duration.ofHours(1), 0, new SimpleMeterRegistry());
+        filter = new JwtAuthFilter(cached);
+        token = cached.generateToken("user1", List.of("ADMIN", "USER"));
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generateToken("user1", List.of("ADMIN", "USER"));
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        return uncached.validate(token);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return cached.validate(token);
+    }
+
+    @Benchmark
+    public List<String> getRoles() {
+        return cached.getRoles(token);
+    }
+
+    @Benchmark
+    public Object filterEndToEnd() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.auth.bench;
+
+import com.auth.service.TaskService;
+import com.auth.service.TaskStatusBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Синхронная смена статуса (блокировка строки + save в своей транзакции) против
+ * write-behind буфера. В режиме writeBehind стоимость сброса входит в замер: пороговый
+ * сброс выполняется в потоке вызывающего, плановый — в потоке планировщика.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class StatusFlipBenchmark {
+
+    @Param({"sync", "writeBehind"})
+    public String mode;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskStatusBuffer buffer;
+    private List<Long> taskIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("app.write-behind.enabled=" + mode.equals("writeBehind"));
+        taskService = context.getBean(TaskService.class);
+        buffer = context.getBean(TaskStatusBuffer.class);
+        BenchmarkContext.seed(context, 100, rows);
+        taskIds = context.getBean(JdbcTemplate.class).queryForList("select id from tasks order by id", Long.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        buffer.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void flipStatus() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long id = taskIds.get(random.nextInt(taskIds.size()));
+        boolean done = random.nextBoolean();
+        if (buffer.isEnabled()) {
+            buffer.submit(id, done);
+        } else {
+            taskService.updateTaskStatus(id, done, null);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.auth.bench;
+
+import com.auth.dto.TaskDTO;
+import com.auth.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TaskListingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"100"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        taskService = context.getBean(TaskService.class);
+        userIds = BenchmarkContext.seed(context, users, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<TaskDTO> undoneFirstPage() {
+        return taskService.getUndoneTasks(PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<TaskDTO> doneDeepPage() {
+        return taskService.getDoneTasks(PageRequest.of(rows / 40 - 1, 20));
+    }
+
+    @Benchmark
+    public Page<TaskDTO> tasksByUser() {
+        return taskService.getAllTasksByUserId(randomUser(), PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<TaskDTO> undoneTasksByUser() {
+        return taskService.getAllUndoneTasksByUserId(randomUser(), PageRequest.of(0, 20));
+    }
+
+    private Long randomUser() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+}
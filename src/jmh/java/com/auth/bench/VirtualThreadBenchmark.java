@@ -0,0 +1,82 @@
+package com.auth.bench;
+
+import com.auth.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пул платформенных потоков размером с пул Tomcat против виртуальных потоков на одной и
+ * той же пачке параллельных запросов. Каждый запрос выполняет постраничную выборку и
+ * спит {@code ioLatencyMs} — имитация сетевой задержки до удалённой БД.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+    /** Запросов в пачке; должно совпадать с {@code @OperationsPerInvocation}. */
+    private static final int REQUESTS = 1000;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"5"})
+    public int ioLatencyMs;
+
+    @Param({"200"})
+    public int platformThreads;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private List<Long> userIds;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(mode);
+        context = BenchmarkContext.start("spring.threads.virtual.enabled=" + virtual);
+        taskService = context.getBean(TaskService.class);
+        userIds = BenchmarkContext.seed(context, 100, 100_000);
+        executor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformThreads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int requests() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(this::request));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    private Integer request() throws InterruptedException {
+        Long userId = userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+        int rows = taskService.getAllUndoneTasksByUserId(userId, PageRequest.of(0, 20)).getNumberOfElements();
+        Thread.sleep(ioLatencyMs);
+        return rows;
+    }
+}
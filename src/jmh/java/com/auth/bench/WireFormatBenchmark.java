@@ -0,0 +1,85 @@
+package com.auth.bench;
+
+import com.auth.config.ColumnarTaskPageConverter;
+import com.auth.dto.TaskDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сериализация одной страницы задач в разные форматы. Размер в байтах на задачу
+ * (с gzip и без) печатается при подготовке каждого прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    @Param({"json", "smile", "cbor", "columnarJson", "columnarCbor"})
+    public String format;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper smile = new SmileMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+    private final JsonFactory columnarJson = new JsonFactory();
+    private final JsonFactory columnarCbor = new CBORFactory();
+
+    private Page<TaskDTO> page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        List<TaskDTO> tasks = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            tasks.add(new TaskDTO(100_000L + i, "Подготовить отчёт за квартал #" + random.nextInt(10_000),
+                    random.nextBoolean(), 1L + random.nextInt(1000), random.nextInt(5)));
+        }
+        page = new PageImpl<>(tasks, PageRequest.of(3, pageSize), 50_000);
+
+        byte[] raw = serialize();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(raw);
+        }
+        System.out.printf("%n%s, %d задач: %.1f байт/задачу, gzip %.1f байт/задачу%n", format, pageSize,
+                (double) raw.length / pageSize, (double) gzipped.size() / pageSize);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return switch (format) {
+            case "json" -> json.writeValueAsBytes(page);
+            case "smile" -> smile.writeValueAsBytes(page);
+            case "cbor" -> cbor.writeValueAsBytes(page);
+            case "columnarJson" -> columnar(columnarJson);
+            case "columnarCbor" -> columnar(columnarCbor);
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    private byte[] columnar(JsonFactory factory) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pageSize * 32);
+        ColumnarTaskPageConverter.write(factory, page, out);
+        return out.toByteArray();
+    }
+}
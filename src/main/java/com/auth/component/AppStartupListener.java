@@ -2,8 +2,8 @@ package com.auth.component;
 
 import com.auth.entity.Task;
 import com.auth.entity.User;
-import com.auth.repository.TaskRepository;
 import com.auth.repository.UserRepository;
+import com.auth.service.TaskService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
@@ -18,7 +18,7 @@ import java.util.List;
 public class AppStartupListener implements ApplicationListener<ApplicationReadyEvent> {
 
     private final UserRepository userRepository;
-    private final TaskRepository taskRepository;
+    private final TaskService taskService;
     private final PasswordEncoder passwordEncoder;
 
     @Override
@@ -51,7 +51,7 @@ public class AppStartupListener implements ApplicationListener<ApplicationReadyE
                     task.setUser(user);
                     tasks.add(task);
                 }
-                taskRepository.saveAll(tasks);
+                taskService.addTasks(tasks);
             });
 
             System.out.println("🎉 Приложение готово к работе!");
@@ -0,0 +1,119 @@
+package com.auth.config;
+
+import com.auth.dto.CursorPage;
+import com.auth.dto.TaskDTO;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Колоночное представление страниц задач: имена полей пишутся один раз,
+ * а каждая задача — массивом значений.
+ * <pre>
+ * {"columns":["id","name","done","userId","version"],
+ *  "rows":[[1,"Купить хлеб",false,3,0], ...],
+ *  "page":{"number":0,"size":20,"totalElements":135,"totalPages":7}}
+ * </pre>
+ * Для курсорных страниц вместо {@code page} пишутся {@code next} и {@code hasNext}.
+ */
+public class ColumnarTaskPageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.todo.columnar-json");
+    public static final MediaType COLUMNAR_CBOR = MediaType.parseMediaType("application/vnd.todo.columnar-cbor");
+
+    private static final String[] COLUMNS = {"id", "name", "done", "userId", "version"};
+
+    private final JsonFactory factory;
+
+    public ColumnarTaskPageConverter(JsonFactory factory, MediaType mediaType) {
+        super(mediaType);
+        this.factory = factory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Page.class.isAssignableFrom(clazz) || CursorPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return supports(clazz)
+                && type instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] == TaskDTO.class
+                && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        write(factory, body, outputMessage.getBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void write(JsonFactory factory, Object body, OutputStream out) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName("columns");
+            generator.writeArray(COLUMNS, 0, COLUMNS.length);
+
+            List<TaskDTO> content = body instanceof Page<?> page
+                    ? (List<TaskDTO>) page.getContent()
+                    : ((CursorPage<TaskDTO>) body).content();
+            generator.writeArrayFieldStart("rows");
+            for (TaskDTO task : content) {
+                generator.writeStartArray();
+                generator.writeNumber(task.getId());
+                generator.writeString(task.getName());
+                generator.writeBoolean(task.isDone());
+                if (task.getUserId() != null) {
+                    generator.writeNumber(task.getUserId());
+                } else {
+                    generator.writeNull();
+                }
+                generator.writeNumber(task.getVersion());
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+
+            if (body instanceof Page<?> page) {
+                generator.writeObjectFieldStart("page");
+                generator.writeNumberField("number", page.getNumber());
+                generator.writeNumberField("size", page.getSize());
+                generator.writeNumberField("totalElements", page.getTotalElements());
+                generator.writeNumberField("totalPages", page.getTotalPages());
+                generator.writeEndObject();
+            } else {
+                CursorPage<?> cursor = (CursorPage<?>) body;
+                generator.writeStringField("next", cursor.next());
+                generator.writeBooleanField("hasNext", cursor.hasNext());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Колоночный формат только для ответов", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        return readInternal(Object.class, inputMessage);
+    }
+}
@@ -0,0 +1,82 @@
+package com.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Включается, когда задан {@code app.datasource.replica.url}. Без него приложение
+ * работает на единственном {@code spring.datasource}, как раньше.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.datasource.replica.url:}' != ''")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password
+    ) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica
+    ) {
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primary, replica));
+    }
+
+    /**
+     * Для локальной проверки на двух независимых H2/PostgreSQL без физической репликации:
+     * накатывает ту же схему на реплику. Не {@link SpringLiquibase}-бин, чтобы не отключить
+     * автоконфигурацию миграций primary.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.migrate", havingValue = "true")
+    public InitializingBean replicaSchemaMigration(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${spring.liquibase.change-log}") String changeLog,
+            ResourceLoader resourceLoader
+    ) {
+        return () -> {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(replica);
+            liquibase.setChangeLog(changeLog);
+            liquibase.setResourceLoader(resourceLoader);
+            liquibase.afterPropertiesSet();
+        };
+    }
+}
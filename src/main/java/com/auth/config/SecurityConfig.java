@@ -2,35 +2,57 @@ package com.auth.config;
 
 import com.auth.security.JwtAuthFilter;
 import com.auth.security.JwtTokenProvider;
+import com.auth.security.RateLimitFilter;
+import com.auth.security.RequestRateLimiter;
+import com.auth.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.JdbcUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
 import javax.sql.DataSource;
+import java.util.Map;
 
 @Configuration
 public class SecurityConfig {
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtTokenProvider jwt)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtTokenProvider jwt,
+                                                   RequestRateLimiter rateLimiter)
             throws Exception {
             http.csrf().disable()
                     .authorizeHttpRequests(c -> c
                             .requestMatchers("api/token").permitAll()
-                            .requestMatchers("/tasks/admin/**").hasRole("ADMIN")
+                            .requestMatchers("/actuator/health").permitAll()
+                            // метрики раскрывают задержки по эндпоинтам, лимиты входа и состояние пула
+                            .requestMatchers("/actuator/prometheus", "/actuator/metrics/**").hasRole("ADMIN")
+                            .requestMatchers("/api/tasks/admin/**").hasRole("ADMIN")
                             .anyRequest().authenticated()
                     )
-                    .addFilterBefore(new JwtAuthFilter(jwt), org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
+                    .addFilterBefore(new JwtAuthFilter(jwt), org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class)
+                    .addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthFilter.class);
             return http.build();
 
     }
 
+    /**
+     * Новые хэши пишутся как {@code {bcrypt}} с настраиваемой стоимостью. Старые хэши без
+     * префикса по-прежнему проверяются и перехэшируются при следующем входе.
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-strength:10}") int strength,
+            MeterRegistry meterRegistry
+    ) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return new TimedPasswordEncoder(encoder, meterRegistry);
     }
 
     @Bean
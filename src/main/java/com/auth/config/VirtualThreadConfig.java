@@ -0,0 +1,35 @@
+package com.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        int maxConnections = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        Duration timeout = environment.getProperty("app.jdbc.acquire-timeout", Duration.class, Duration.ofSeconds(30));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // прокси (маршрутизация на реплику, сам лимитер) не держат соединений — лимитируем пулы
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    int limit = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : maxConnections;
+                    return new ConnectionLimitingDataSource(dataSource, limit, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.auth.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Компактные форматы списков задач выбираются только явным Accept. Конвертеры добавляются
+ * в конец списка: при {@code Accept: *}{@code /*} по-прежнему отдаётся обычный JSON.
+ * CBOR ({@code application/cbor}) и Smile ({@code application/x-jackson-smile}) для любых
+ * ответов Spring MVC подключает сам по наличию jackson-dataformat-*.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ColumnarTaskPageConverter(new JsonFactory(), ColumnarTaskPageConverter.COLUMNAR_JSON));
+        converters.add(new ColumnarTaskPageConverter(new CBORFactory(), ColumnarTaskPageConverter.COLUMNAR_CBOR));
+    }
+}
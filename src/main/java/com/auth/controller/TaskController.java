@@ -1,41 +1,93 @@
 package com.auth.controller;
 
+import com.auth.dto.BulkResultDTO;
+import com.auth.dto.CursorPage;
+import com.auth.dto.ImportReportDTO;
+import com.auth.dto.TaskDTO;
+import com.auth.dto.TaskStatsDTO;
 import com.auth.dto.UserDTO;
 import com.auth.entity.Task;
 import com.auth.entity.User;
+import com.auth.event.TaskEventBroadcaster;
 import com.auth.exception.PasswordNotMatchesException;
+import com.auth.exception.TooManyLoginAttemptsException;
+import com.auth.exception.VersionMismatchException;
 import com.auth.exception.WrongIdException;
+import com.auth.export.ExportFormat;
+import com.auth.export.ExportJob;
+import com.auth.export.ExportScope;
+import com.auth.service.CacheStatsService;
+import com.auth.service.ExportJobService;
+import com.auth.service.ExportPrecomputeService;
+import com.auth.service.TaskImportService;
 import com.auth.service.TaskService;
+import com.auth.service.TaskStatsService;
+import com.auth.service.TaskStatusBuffer;
 import com.auth.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api")
 public class TaskController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final TaskService taskService;
     private final UserService userService;
+    private final ExportJobService exportJobService;
+    private final ExportPrecomputeService exportPrecomputeService;
+    private final TaskImportService taskImportService;
+    private final CacheStatsService cacheStatsService;
+    private final TaskStatsService taskStatsService;
+    private final TaskStatusBuffer taskStatusBuffer;
+    private final TaskEventBroadcaster taskEventBroadcaster;
 
     @Value("${app.export-dir}")
     private String exportDir;
 
 
     @GetMapping("/token")
-    public String getToken(@RequestBody UserDTO userDTO) {
+    public ResponseEntity<String> getToken(@RequestBody UserDTO userDTO) {
         try{
-            return userService.generateToken(userDTO);
+            return ResponseEntity.ok(userService.generateToken(userDTO));
         }catch (UsernameNotFoundException | PasswordNotMatchesException e){
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }catch (TooManyLoginAttemptsException e){
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                    .body(e.getMessage());
         }
     }
 
@@ -45,80 +97,234 @@ public class TaskController {
         return ResponseEntity.ok(saved);
     }
 
+    @PostMapping("/tasks/bulk")
+    public ResponseEntity<List<Task>> createTasks(@RequestBody List<Task> tasks) {
+        return ResponseEntity.ok(taskService.addTasks(tasks));
+    }
+
+    @PostMapping(value = "/tasks/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReportDTO> importTasks(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format
+    ) {
+        ExportFormat importFormat = importFormat(format, file);
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(taskImportService.importTasks(importFormat, in));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Не удалось прочитать файл: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/tasks/admin/bulk/done")
+    public ResponseEntity<BulkResultDTO> markTasksDone(
+            @RequestBody(required = false) List<Long> ids,
+            @RequestParam(required = false) Long userId
+    ) {
+        if (userId != null) {
+            return ResponseEntity.ok(new BulkResultDTO(taskService.markUserTasksDone(userId)));
+        }
+        if (ids == null || ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Нужно передать список id или userId");
+        }
+        return ResponseEntity.ok(new BulkResultDTO(taskService.markTasksDone(ids)));
+    }
+
+    @DeleteMapping("/tasks/admin/bulk")
+    public ResponseEntity<BulkResultDTO> deleteTasks(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(new BulkResultDTO(taskService.deleteTasks(ids)));
+    }
+
     @PutMapping("/tasks/admin/update/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task task) {
+    public ResponseEntity<Task> updateTask(
+            @PathVariable Long id,
+            @RequestBody Task task,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request
+    ) {
         try {
-            return ResponseEntity.ok(taskService.updateTask(id, task));
+            Task saved = taskService.updateTask(id, task, expectedVersion(id, ifMatch));
+            varyByAccept(request);
+            return ResponseEntity.ok().eTag(taskETag(saved, request)).body(saved);
         }catch (WrongIdException e){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Задача с %d не найдена".formatted(id));
+        }catch (VersionMismatchException e){
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         }
     }
 
     @PutMapping("/tasks/admin/{id}")
-    public ResponseEntity<String> updateTaskStatus(@PathVariable Long id) {
+    public ResponseEntity<String> updateTaskStatus(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request
+    ) {
         try {
-            taskService.markAsDoneTask(id);
-            return ResponseEntity.ok("Задача выполнена");
+            if (taskStatusBuffer.isEnabled() && ifMatch == null) {
+                taskService.getTaskById(id).orElseThrow(() -> new WrongIdException("Задача не найдена: " + id));
+                taskStatusBuffer.submit(id, true);
+                return ResponseEntity.accepted().body("Задача будет отмечена выполненной");
+            }
+            Task saved = taskService.markAsDoneTask(id, expectedVersion(id, ifMatch));
+            return ResponseEntity.ok().eTag(taskETag(saved, request)).body("Задача выполнена");
         }catch (WrongIdException e){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Задача с %d не найдена".formatted(id));
+        }catch (VersionMismatchException e){
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         }
     }
 
     @GetMapping("/tasks/all_tasks")
-    public ResponseEntity<Page<Task>> getAllTasks(Pageable pageable) {
-        return ResponseEntity.ok(taskService.getTasks(pageable));
+    public ResponseEntity<Page<TaskDTO>> getAllTasks(Pageable pageable, WebRequest request) {
+        return conditional(request, taskService.getTasks(pageable));
     }
 
     @GetMapping("/tasks/all_tasks/export")
-    public void exportTasksToExcel(HttpServletResponse response, Pageable pageable) throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=tasks.xlsx");
-        taskService.exportAllTasks(response.getOutputStream());
+    public void exportTasksToExcel(HttpServletResponse response, HttpServletRequest request,
+                                   @RequestParam(required = false) String format,
+                                   @RequestParam(defaultValue = "false") boolean gzip,
+                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        export(request, response, ExportScope.ALL, null, format, gzip, accept);
     }
 
     @GetMapping("/tasks/undone_tasks/export")
-    public void exportUndoneTasksToExcel(HttpServletResponse response, Pageable pageable) throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=tasks.xlsx");
-        taskService.exportUndoneTasks(response.getOutputStream());
+    public void exportUndoneTasksToExcel(HttpServletResponse response, HttpServletRequest request,
+                                         @RequestParam(required = false) String format,
+                                         @RequestParam(defaultValue = "false") boolean gzip,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        export(request, response, ExportScope.UNDONE, null, format, gzip, accept);
     }
 
     @GetMapping("/tasks/done_tasks/export")
-    public void exportDoneTasksToExcel(HttpServletResponse response, Pageable pageable) throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=tasks.xlsx");
-        taskService.exportDoneTasks(response.getOutputStream());
+    public void exportDoneTasksToExcel(HttpServletResponse response, HttpServletRequest request,
+                                       @RequestParam(required = false) String format,
+                                       @RequestParam(defaultValue = "false") boolean gzip,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        export(request, response, ExportScope.DONE, null, format, gzip, accept);
     }
 
     @GetMapping("/tasks/all_tasks/export/{id}")
-    public void exportAllTasksToExcelByUserId(HttpServletResponse response, Pageable pageable, @PathVariable Long id)
+    public void exportAllTasksToExcelByUserId(HttpServletResponse response, HttpServletRequest request, @PathVariable Long id,
+                                              @RequestParam(required = false) String format,
+                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
             throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=tasks.xlsx");
-        taskService.exportAllTasksByUserId(id, response.getOutputStream());
+        export(request, response, ExportScope.ALL, id, format, gzip, accept);
     }
 
     @GetMapping("/tasks/undone_tasks/export/{id}")
-    public void exportUndoneTasksToExcelByUserId(HttpServletResponse response, Pageable pageable, @PathVariable Long id)
+    public void exportUndoneTasksToExcelByUserId(HttpServletResponse response, HttpServletRequest request, @PathVariable Long id,
+                                                 @RequestParam(required = false) String format,
+                                                 @RequestParam(defaultValue = "false") boolean gzip,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
             throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=tasks.xlsx");
-        taskService.exportUndoneTasksByUserId(id, response.getOutputStream());
+        export(request, response, ExportScope.UNDONE, id, format, gzip, accept);
     }
 
     @GetMapping("/tasks/done_tasks/export/{id}")
-    public void exportDoneTasksToExcelByUserId(HttpServletResponse response, Pageable pageable, @PathVariable Long id)
+    public void exportDoneTasksToExcelByUserId(HttpServletResponse response, HttpServletRequest request, @PathVariable Long id,
+                                               @RequestParam(required = false) String format,
+                                               @RequestParam(defaultValue = "false") boolean gzip,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
             throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=tasks.xlsx");
-        taskService.exportDoneTasksByUserId(id, response.getOutputStream());
+        export(request, response, ExportScope.DONE, id, format, gzip, accept);
+    }
+
+    @PostMapping("/tasks/export/jobs")
+    public ResponseEntity<ExportJob> createExportJob(
+            @RequestParam(defaultValue = "ALL") ExportScope scope,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) throws IOException {
+        try {
+            return ResponseEntity.accepted().body(exportJobService.submit(scope, userId, exportFormat(format, null), gzip));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Очередь экспорта переполнена");
+        }
+    }
+
+    @GetMapping("/tasks/export/jobs/{jobId}")
+    public ResponseEntity<ExportJob> getExportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(exportJobService.getJob(jobId));
+        } catch (WrongIdException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping("/tasks/export/jobs/{jobId}/file")
+    public void downloadExportJob(@PathVariable String jobId, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        ExportJob job;
+        try {
+            job = exportJobService.getJob(jobId);
+        } catch (WrongIdException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        if (job.getStatus() != ExportJob.Status.DONE || !Files.isRegularFile(job.getPath())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Экспорт ещё не готов: " + job.getStatus());
+        }
+        sendFile(request, response, job.getPath(), job.getFormat().contentType(job.isGzip()), job.getFileName());
+    }
+
+    @GetMapping(value = "/tasks/events/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToUserTaskEvents(
+            @PathVariable Long id,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            Authentication authentication
+    ){
+        requireOwnerOrAdmin(id, authentication);
+        return taskEventBroadcaster.subscribe(id, lastEventId);
+    }
+
+    @GetMapping(value = "/tasks/admin/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToTaskEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ){
+        return taskEventBroadcaster.subscribe(null, lastEventId);
+    }
+
+    @GetMapping("/tasks/search")
+    public ResponseEntity<Page<TaskDTO>> searchTasks(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Boolean done,
+            Pageable pageable,
+            WebRequest request
+    ){
+        try {
+            return conditional(request, taskService.searchTasks(query, userId, done, pageable));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/tasks/stats")
+    public ResponseEntity<TaskStatsDTO> getTaskStats() {
+        return ResponseEntity.ok(taskStatsService.getGlobalStats());
+    }
+
+    @GetMapping("/tasks/stats/{id}")
+    public ResponseEntity<TaskStatsDTO> getTaskStatsByUserId(@PathVariable Long id) {
+        return ResponseEntity.ok(taskStatsService.getUserStats(id));
+    }
+
+    @GetMapping("/tasks/admin/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getStats());
     }
 
     @GetMapping("/tasks/{id}")
-    public ResponseEntity<Task> getTaskById(@PathVariable("id") Long id) {
-        return taskService.getTaskById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<Task> getTaskById(@PathVariable("id") Long id, WebRequest request) {
+        Task task = taskService.getTaskById(id)
+                .map(taskStatusBuffer::overlay)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Задача с %d не найдена".formatted(id)));
+        return conditional(request, task, taskETag(task, request));
     }
 
     @DeleteMapping("/tasks/admin/delete/{id}")
@@ -132,33 +338,252 @@ public class TaskController {
     }
 
     @GetMapping("/tasks/undone")
-    public ResponseEntity<Page<Task>> getUndoneTasks(Pageable pageable) {
-        return ResponseEntity.ok(taskService.getUndoneTasks(pageable));
+    public ResponseEntity<Page<TaskDTO>> getUndoneTasks(Pageable pageable, WebRequest request) {
+        return conditional(request, taskService.getUndoneTasks(pageable));
     }
 
     @GetMapping("/tasks/done")
-    public ResponseEntity<Page<Task>> getDoneTasks(Pageable pageable) {
-        return ResponseEntity.ok(taskService.getDoneTasks(pageable));
+    public ResponseEntity<Page<TaskDTO>> getDoneTasks(Pageable pageable, WebRequest request) {
+        return conditional(request, taskService.getDoneTasks(pageable));
     }
     @GetMapping("/tasks/all_tasks/{id}")
-    public ResponseEntity<Page<Task>> getAllTasksByUserId (@PathVariable Long id, Pageable pageable){
-        return ResponseEntity.ok(taskService.getAllTasksByUserId(id, pageable));
+    public ResponseEntity<Page<TaskDTO>> getAllTasksByUserId (@PathVariable Long id, Pageable pageable,
+                                                              WebRequest request){
+        return conditional(request, taskService.getAllTasksByUserId(id, pageable));
     }
 
     @GetMapping("/tasks/all_undone_tasks/{id}")
-    public ResponseEntity<Page<Task>> getAllUndoneTasksByUserId (
+    public ResponseEntity<Page<TaskDTO>> getAllUndoneTasksByUserId (
             @PathVariable Long id,
-            Pageable pageable
+            Pageable pageable,
+            WebRequest request
     ){
-        return ResponseEntity.ok(taskService.getAllUndoneTasksByUserId(id, pageable));
+        return conditional(request, taskService.getAllUndoneTasksByUserId(id, pageable));
     }
 
     @GetMapping("/tasks/all_done_tasks/{id}")
-    public ResponseEntity<Page<Task>> getAllDoneTasksByUserId
+    public ResponseEntity<Page<TaskDTO>> getAllDoneTasksByUserId
             (
              @PathVariable Long id,
-             Pageable pageable
+             Pageable pageable,
+             WebRequest request
+    ){
+        return conditional(request, taskService.getAllDoneTasksByUserId(id, pageable));
+    }
+
+    @GetMapping("/tasks/all_tasks/cursor")
+    public ResponseEntity<CursorPage<TaskDTO>> getAllTasksAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ){
+        return cursorPage(request, () -> taskService.getTasksAfter(after, cursorSize(size)));
+    }
+
+    @GetMapping("/tasks/undone/cursor")
+    public ResponseEntity<CursorPage<TaskDTO>> getUndoneTasksAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ){
+        return cursorPage(request, () -> taskService.getTasksByStatusAfter(false, after, cursorSize(size)));
+    }
+
+    @GetMapping("/tasks/done/cursor")
+    public ResponseEntity<CursorPage<TaskDTO>> getDoneTasksAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
     ){
-        return ResponseEntity.ok(taskService.getAllDoneTasksByUserId(id, pageable));
+        return cursorPage(request, () -> taskService.getTasksByStatusAfter(true, after, cursorSize(size)));
+    }
+
+    @GetMapping("/tasks/all_tasks/{id}/cursor")
+    public ResponseEntity<CursorPage<TaskDTO>> getAllTasksByUserIdAfter(
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ){
+        return cursorPage(request, () -> taskService.getTasksByUserIdAfter(id, after, cursorSize(size)));
+    }
+
+    @GetMapping("/tasks/all_undone_tasks/{id}/cursor")
+    public ResponseEntity<CursorPage<TaskDTO>> getAllUndoneTasksByUserIdAfter(
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ){
+        return cursorPage(request, () -> taskService.getTasksByUserIdAndStatusAfter(id, false, after, cursorSize(size)));
+    }
+
+    @GetMapping("/tasks/all_done_tasks/{id}/cursor")
+    public ResponseEntity<CursorPage<TaskDTO>> getAllDoneTasksByUserIdAfter(
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request
+    ){
+        return cursorPage(request, () -> taskService.getTasksByUserIdAndStatusAfter(id, true, after, cursorSize(size)));
+    }
+
+    private ResponseEntity<CursorPage<TaskDTO>> cursorPage(WebRequest request,
+                                                          Supplier<CursorPage<TaskDTO>> supplier) {
+        CursorPage<TaskDTO> page;
+        try {
+            page = supplier.get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return conditional(request, page,
+                listETag(page.content(), page.next() + ":" + page.hasNext(), request));
+    }
+
+    private ResponseEntity<Page<TaskDTO>> conditional(WebRequest request, Page<TaskDTO> page) {
+        return conditional(request, page, listETag(page.getContent(),
+                page.getTotalElements() + ":" + page.getNumber() + ":" + page.getSize() + ":" + page.getSort(),
+                request));
+    }
+
+    private <T> ResponseEntity<T> conditional(WebRequest request, T body, String etag) {
+        varyByAccept(request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * Одни и те же данные уходят в JSON, CBOR, Smile или колоночном виде, поэтому ETag
+     * считается с учётом Accept, а ответ помечается {@code Vary: Accept}.
+     */
+    private void varyByAccept(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+
+    private String acceptVariant(WebRequest request) {
+        String accept = Objects.requireNonNullElse(request.getHeader(HttpHeaders.ACCEPT), "");
+        return DigestUtils.md5DigestAsHex(accept.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+    }
+
+    /** {@code "id.version.variant"}: для If-Match важны только id и версия. */
+    private String taskETag(Task task, WebRequest request) {
+        return "\"" + task.getId() + "." + task.getVersion() + "." + acceptVariant(request) + "\"";
+    }
+
+    private String listETag(List<TaskDTO> content, String meta, WebRequest request) {
+        StringBuilder key = new StringBuilder(meta).append('|').append(acceptVariant(request));
+        for (TaskDTO task : content) {
+            key.append('|').append(task.getId()).append('.').append(task.getVersion());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Разбирает If-Match вида {@code "id.version"}. Отсутствующий заголовок или {@code *} означает
+     * «любая версия»; тег чужой задачи или неразборчивый тег даёт 412.
+     */
+    private Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                continue;
+            }
+            value = value.replace("\"", "");
+            int dot = value.indexOf('.');
+            if (dot > 0 && value.substring(0, dot).equals(String.valueOf(id))) {
+                int variant = value.indexOf('.', dot + 1);
+                String version = variant > 0 ? value.substring(dot + 1, variant) : value.substring(dot + 1);
+                try {
+                    return Long.parseLong(version);
+                } catch (NumberFormatException ignored) {
+                    // тег не нашего формата — проверяем следующий
+                }
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match не совпадает с задачей " + id);
+    }
+
+    private int cursorSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    private void export(HttpServletRequest request, HttpServletResponse response, ExportScope scope, Long userId,
+                        String format, boolean gzip, String accept) throws IOException {
+        ExportFormat exportFormat = exportFormat(format, accept);
+        exportPrecomputeService.recordRequest(userId);
+        Optional<Path> precomputed = exportPrecomputeService.find(scope, userId, exportFormat, gzip);
+        if (precomputed.isPresent()) {
+            Path path = precomputed.get();
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            if (new ServletWebRequest(request, response).checkNotModified(lastModified)) {
+                return;
+            }
+            sendFile(request, response, path, exportFormat.contentType(false), exportFormat.fileName("tasks", false));
+            return;
+        }
+        response.setContentType(exportFormat.contentType(gzip));
+        response.setHeader("Content-Disposition",
+                "attachment; filename=" + exportFormat.fileName("tasks", gzip));
+        taskService.export(scope, userId, exportFormat, gzip, response.getOutputStream());
+    }
+
+    private ExportFormat exportFormat(String format, String accept) {
+        try {
+            return ExportFormat.resolve(format, accept);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private ExportFormat importFormat(String format, MultipartFile file) {
+        String fileName = file.getOriginalFilename();
+        if ((format == null || format.isBlank()) && fileName != null) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            for (ExportFormat candidate : ExportFormat.values()) {
+                if (lower.endsWith("." + candidate.getExtension())) {
+                    return candidate;
+                }
+            }
+        }
+        return exportFormat(format, file.getContentType());
+    }
+
+    private void sendFile(HttpServletRequest request, HttpServletResponse response, Path path,
+                          String contentType, String fileName) throws IOException {
+        long size = Files.size(path);
+        response.setContentType(contentType);
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", path.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path)) {
+            var out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private void requireOwnerOrAdmin(Long userId, Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin && !userService.getUser(authentication.getName()).getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Нет доступа к событиям пользователя " + userId);
+        }
     }
 }
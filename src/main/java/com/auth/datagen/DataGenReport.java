@@ -0,0 +1,21 @@
+package com.auth.datagen;
+
+import java.time.Duration;
+
+public record DataGenReport(long users, long tasks, Duration elapsed) {
+
+    public long rows() {
+        return users + tasks;
+    }
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return rows() * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "пользователей: %d, задач: %d, время: %d мс, строк/с: %.0f"
+                .formatted(users, tasks, elapsed.toMillis(), rowsPerSecond());
+    }
+}
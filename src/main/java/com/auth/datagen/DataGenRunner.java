@@ -0,0 +1,46 @@
+package com.auth.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Запуск: {@code java -jar todo.jar --spring.profiles.active=datagen --app.datagen.users=1000000}.
+ */
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+@Slf4j
+public class DataGenRunner implements CommandLineRunner {
+    private final DataGenerator dataGenerator;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.datagen.prefix:gen-user-}")
+    private String prefix;
+    @Value("${app.datagen.users:1000}")
+    private int users;
+    @Value("${app.datagen.tasks:100000}")
+    private long tasks;
+    @Value("${app.datagen.done-ratio:0.35}")
+    private double doneRatio;
+    @Value("${app.datagen.skew:1.5}")
+    private double skew;
+    @Value("${app.datagen.seed:42}")
+    private long seed;
+    @Value("${app.datagen.exit:true}")
+    private boolean exit;
+
+    @Override
+    public void run(String... args) {
+        log.info("Генерация данных: {} пользователей, {} задач, префикс {}", users, tasks, prefix);
+        dataGenerator.generate(prefix, users, tasks, doneRatio, skew, seed);
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.auth.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Генератор нагрузочных данных: пользователи и задачи вставляются JDBC-батчами
+ * параллельными чанками, каждый чанк в своей транзакции, а task_stats и роли
+ * заполняются одним set-based запросом в конце.
+ */
+@Component
+@Slf4j
+public class DataGenerator {
+    private static final String[] VERBS = {
+            "Подготовить", "Проверить", "Написать", "Обновить", "Исправить", "Согласовать",
+            "Отправить", "Купить", "Позвонить", "Разобрать", "Настроить", "Оплатить"
+    };
+    private static final String[] NOUNS = {
+            "отчёт", "договор", "счёт", "презентацию", "релиз", "документацию", "сервер",
+            "продукты", "письмо", "бюджет", "план", "тесты", "встречу", "заявку"
+    };
+    private static final String[] QUALIFIERS = {
+            "", "", "", "срочно", "к пятнице", "для клиента", "по проекту", "за квартал"
+    };
+    /** Hibernate использует tasks_seq с pooled-lo: одно значение резервирует столько id. */
+    private static final int TASK_ID_BLOCK = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final DataFieldMaxValueIncrementer taskIds;
+
+    private final int threads;
+    private final int batchSize;
+    private final int chunkSize;
+
+    public DataGenerator(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder,
+            @Value("${app.datagen.threads:4}") int threads,
+            @Value("${app.datagen.batch-size:1000}") int batchSize,
+            @Value("${app.datagen.chunk-size:50000}") int chunkSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.taskIds = isPostgres(dataSource)
+                ? new PostgresSequenceMaxValueIncrementer(dataSource, "tasks_seq")
+                : new H2SequenceMaxValueIncrementer(dataSource, "tasks_seq");
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+        this.chunkSize = Math.max(this.batchSize, chunkSize);
+    }
+
+    /**
+     * @param prefix    префикс имён пользователей; должен быть новым
+     * @param doneRatio доля выполненных задач
+     * @param skew      степень перекоса задач в сторону первых пользователей (1 — равномерно)
+     */
+    public DataGenReport generate(String prefix, int users, long tasks, double doneRatio, double skew, long seed) {
+        if (users <= 0) {
+            throw new IllegalArgumentException("Нужен хотя бы один пользователь");
+        }
+        Integer existing = jdbcTemplate.queryForObject(
+                "select count(*) from users where username like ? escape '!'", Integer.class, likePrefix(prefix));
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Пользователи с префиксом " + prefix + " уже существуют");
+        }
+
+        long started = System.nanoTime();
+        String password = passwordEncoder.encode("password");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> userChunks = new ArrayList<>();
+            for (int from = 0; from < users; from += chunkSize) {
+                int start = from;
+                int end = Math.min(users, from + chunkSize);
+                userChunks.add(executor.submit(() -> insertUsers(prefix, password, start, end)));
+            }
+            await(userChunks);
+
+            jdbcTemplate.update("insert into user_roles (user_id, role) select id, 'USER' from users"
+                    + " where username like ? escape '!'", likePrefix(prefix));
+            long[] userIds = jdbcTemplate.queryForList(
+                            "select id from users where username like ? escape '!' order by id",
+                            Long.class, likePrefix(prefix))
+                    .stream().mapToLong(Long::longValue).toArray();
+
+            List<Future<?>> taskChunks = new ArrayList<>();
+            int chunk = 0;
+            for (long from = 0; from < tasks; from += chunkSize, chunk++) {
+                int size = (int) Math.min(chunkSize, tasks - from);
+                long chunkSeed = seed + chunk;
+                taskChunks.add(executor.submit(() -> insertTasks(userIds, size, doneRatio, skew, chunkSeed)));
+            }
+            await(taskChunks);
+
+            jdbcTemplate.update("""
+                    insert into task_stats (user_id, total, done)
+                    select u.id, count(t.id), coalesce(sum(case when t.done then 1 else 0 end), 0)
+                    from users u left join tasks t on t.user_id = u.id
+                    where u.username like ? escape '!'
+                    group by u.id
+                    """, likePrefix(prefix));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        DataGenReport report = new DataGenReport(users, tasks, Duration.ofNanos(System.nanoTime() - started));
+        log.info("Генерация данных завершена: {}", report);
+        return report;
+    }
+
+    private void insertUsers(String prefix, String password, int from, int to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int start = from; start < to; start += batchSize) {
+                int offset = start;
+                int size = Math.min(batchSize, to - start);
+                jdbcTemplate.batchUpdate("insert into users (username, password) values (?, ?)",
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                ps.setString(1, prefix + (offset + i));
+                                ps.setString(2, password);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return size;
+                            }
+                        });
+            }
+        });
+    }
+
+    private void insertTasks(long[] userIds, int count, double doneRatio, double skew, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        transactionTemplate.executeWithoutResult(status -> {
+            long nextId = 0;
+            int leftInBlock = 0;
+            for (int start = 0; start < count; start += batchSize) {
+                int size = Math.min(batchSize, count - start);
+                List<Object[]> rows = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    if (leftInBlock == 0) {
+                        nextId = taskIds.nextLongValue();
+                        leftInBlock = TASK_ID_BLOCK;
+                    }
+                    long owner = userIds[(int) (userIds.length * Math.pow(random.nextDouble(), skew))];
+                    rows.add(new Object[]{nextId++, taskName(random), random.nextDouble() < doneRatio, owner});
+                    leftInBlock--;
+                }
+                jdbcTemplate.batchUpdate("insert into tasks (id, name, done, user_id) values (?, ?, ?, ?)", rows);
+            }
+        });
+    }
+
+    private String taskName(SplittableRandom random) {
+        String qualifier = QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+        String name = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+        if (!qualifier.isEmpty()) {
+            name += " " + qualifier;
+        }
+        return random.nextInt(4) == 0 ? name + " #" + random.nextInt(10_000) : name;
+    }
+
+    private void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Генерация данных прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка генерации данных", e.getCause());
+        }
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
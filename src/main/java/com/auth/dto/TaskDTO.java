@@ -0,0 +1,16 @@
+package com.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskDTO {
+    private Long id;
+    private String name;
+    private boolean done;
+    private Long userId;
+    private long version;
+}
@@ -0,0 +1,20 @@
+package com.auth.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TaskStatsDTO {
+    private Long userId;
+    private long total;
+    private long done;
+    private long undone;
+
+    public TaskStatsDTO(Long userId, long total, long done) {
+        this.userId = userId;
+        this.total = total;
+        this.done = done;
+        this.undone = total - done;
+    }
+}
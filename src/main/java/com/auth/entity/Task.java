@@ -2,6 +2,9 @@ package com.auth.entity;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,7 +15,8 @@ import jakarta.persistence.*;
 @Setter
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,6 +25,14 @@ public class Task {
     @Column(name = "done", nullable = false)
     boolean done;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -36,6 +48,7 @@ public class Task {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", done=" + done +
+                ", version=" + version +
                 ", user=" + (user != null ? user.getUsername() : "null") +
                 '}';
     }
@@ -0,0 +1,39 @@
+package com.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Только для чтения: представление {@code tasks_all} — горячие задачи из {@code tasks}
+ * плюс выполненные задачи из {@code tasks_archive}.
+ */
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "tasks_all")
+@Getter
+@ToString(exclude = "user")
+public class TaskRecord {
+    @Id
+    private Long id;
+
+    private String name;
+
+    private boolean done;
+
+    private long version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    public Task toTask() {
+        return new Task(id, name, done, version, updatedAt, user);
+    }
+}
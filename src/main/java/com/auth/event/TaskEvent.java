@@ -0,0 +1,9 @@
+package com.auth.event;
+
+import com.auth.dto.TaskDTO;
+
+public record TaskEvent(Type type, TaskDTO task) {
+    public enum Type {
+        CREATED, UPDATED, DONE, DELETED
+    }
+}
@@ -0,0 +1,9 @@
+package com.auth.event;
+
+import com.auth.dto.TaskDTO;
+
+import java.util.List;
+
+/** События одного типа для чанка массовой операции: одна синхронизация транзакции на чанк. */
+public record TaskEventBatch(TaskEvent.Type type, List<TaskDTO> tasks) {
+}
@@ -0,0 +1,187 @@
+package com.auth.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Slf4j
+public class TaskEventBroadcaster {
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final SequencedEvent[] ring;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter droppedSubscribers;
+
+    private long sequence;
+
+    public TaskEventBroadcaster(
+            @Value("${app.events.buffer-size:256}") int bufferSize,
+            @Value("${app.events.replay-size:1024}") int replaySize,
+            @Value("${app.events.timeout:PT30M}") Duration timeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeout.toMillis();
+        this.ring = new SequencedEvent[replaySize];
+        this.droppedSubscribers = meterRegistry.counter("task.events.dropped.subscribers");
+        meterRegistry.gauge("task.events.subscribers", subscribers, Set::size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        synchronized (ring) {
+            append(event);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvents(TaskEventBatch batch) {
+        synchronized (ring) {
+            for (var task : batch.tasks()) {
+                append(new TaskEvent(batch.type(), task));
+            }
+        }
+    }
+
+    private void append(TaskEvent event) {
+        SequencedEvent sequenced = new SequencedEvent(++sequence, event);
+        ring[(int) (sequenced.id() % ring.length)] = sequenced;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(sequenced);
+        }
+    }
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, userId);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (ring) {
+            if (lastEventId != null && !replay(subscriber, lastEventId)) {
+                subscriber.reset = true;
+            }
+            if (!subscriber.closed) {
+                subscribers.add(subscriber);
+            }
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    private boolean replay(Subscriber subscriber, long lastEventId) {
+        long oldest = Math.max(1, sequence - ring.length + 1);
+        // id из будущего: счётчик в памяти начался заново после рестарта, новые события клиент не видел
+        if (lastEventId + 1 < oldest || lastEventId > sequence) {
+            return false;
+        }
+        List<SequencedEvent> missed = new ArrayList<>();
+        for (long id = lastEventId + 1; id <= sequence; id++) {
+            SequencedEvent event = ring[(int) (id % ring.length)];
+            if (subscriber.accepts(event)) {
+                missed.add(event);
+            }
+        }
+        // больше, чем влезает в очередь подписчика: он сразу был бы закрыт и переподключался по кругу
+        if (missed.size() > bufferSize) {
+            return false;
+        }
+        missed.forEach(subscriber::offer);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private record SequencedEvent(long id, TaskEvent event) {
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final BlockingQueue<SequencedEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean reset;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long userId) {
+            this.emitter = emitter;
+            this.userId = userId;
+        }
+
+        void offer(SequencedEvent event) {
+            if (closed || !accepts(event)) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.warn("Подписчик на события задач не успевает, соединение закрыто");
+                droppedSubscribers.increment();
+                closed = true;
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            schedule();
+        }
+
+        boolean accepts(SequencedEvent event) {
+            return userId == null || userId.equals(event.event().task().getUserId());
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (reset) {
+                    reset = false;
+                    emitter.send(SseEmitter.event().name("reset").data("replay-unavailable"));
+                }
+                SequencedEvent next;
+                while ((next = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(next.id()))
+                            .name(next.event().type().name().toLowerCase(Locale.ROOT))
+                            .data(next.event().task()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
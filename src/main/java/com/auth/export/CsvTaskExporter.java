@@ -0,0 +1,67 @@
+package com.auth.export;
+
+import com.auth.dto.TaskDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Component
+public class CsvTaskExporter implements TaskExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public ExportFormat format() {
+        return ExportFormat.CSV;
+    }
+
+    @Override
+    public void write(Stream<TaskDTO> tasks, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write("ID,Name,Done,User ID\n");
+
+        Iterator<TaskDTO> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            TaskDTO task = iterator.next();
+            writer.write(Long.toString(task.getId()));
+            writer.write(',');
+            writeEscaped(writer, task.getName());
+            writer.write(',');
+            writer.write(task.isDone() ? "true" : "false");
+            writer.write(',');
+            writer.write(Long.toString(task.getUserId() != null ? task.getUserId() : -1));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeEscaped(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,53 @@
+package com.auth.export;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", "application/x-ndjson");
+
+    public static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String contentType(boolean gzip) {
+        return gzip ? GZIP_CONTENT_TYPE : contentType;
+    }
+
+    public String fileName(String baseName, boolean gzip) {
+        return baseName + "." + extension + (gzip ? ".gz" : "");
+    }
+
+    public static ExportFormat resolve(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестный формат экспорта: " + format);
+            }
+        }
+        if (accept != null) {
+            for (ExportFormat candidate : values()) {
+                if (accept.contains(candidate.contentType)) {
+                    return candidate;
+                }
+            }
+        }
+        return XLSX;
+    }
+}
@@ -0,0 +1,58 @@
+package com.auth.export;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+public class ExportJob {
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final ExportScope scope;
+    private final Long userId;
+    private final ExportFormat format;
+    private final boolean gzip;
+    private final String fileName;
+    private final Instant createdAt = Instant.now();
+
+    @JsonIgnore
+    private final Path path;
+
+    private volatile Status status = Status.PENDING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ExportJob(ExportScope scope, Long userId, ExportFormat format, boolean gzip, String fileName, Path path) {
+        this.scope = scope;
+        this.userId = userId;
+        this.format = format;
+        this.gzip = gzip;
+        this.fileName = fileName;
+        this.path = path;
+    }
+
+    public void running() {
+        status = Status.RUNNING;
+    }
+
+    public void done() {
+        finishedAt = Instant.now();
+        status = Status.DONE;
+    }
+
+    public void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,21 @@
+package com.auth.export;
+
+public enum ExportScope {
+    ALL("all_tasks"),
+    DONE("done_tasks"),
+    UNDONE("undone_tasks");
+
+    private final String prefix;
+
+    ExportScope(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String baseName(Long userId) {
+        return userId == null ? prefix : prefix + "_" + userId;
+    }
+
+    public String fileName(Long userId, ExportFormat format, boolean gzip) {
+        return format.fileName(baseName(userId), gzip);
+    }
+}
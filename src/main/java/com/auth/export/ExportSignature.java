@@ -0,0 +1,14 @@
+package com.auth.export;
+
+import java.time.Instant;
+
+/**
+ * Сводка задач пользователя, по которой видно, менялись ли они с прошлой сборки экспорта:
+ * вставка и правка двигают {@code lastUpdated} и {@code versionSum}, удаление — {@code count}.
+ */
+public record ExportSignature(long count, Instant lastUpdated, long versionSum) {
+
+    public String encode() {
+        return count + ":" + (lastUpdated != null ? lastUpdated.toEpochMilli() : 0) + ":" + versionSum;
+    }
+}
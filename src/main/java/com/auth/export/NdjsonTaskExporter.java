@@ -0,0 +1,52 @@
+package com.auth.export;
+
+import com.auth.dto.TaskDTO;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Component
+public class NdjsonTaskExporter implements TaskExporter {
+    private final JsonFactory jsonFactory;
+
+    public NdjsonTaskExporter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    public ExportFormat format() {
+        return ExportFormat.NDJSON;
+    }
+
+    @Override
+    public void write(Stream<TaskDTO> tasks, OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+        Iterator<TaskDTO> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            TaskDTO task = iterator.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", task.getId());
+            generator.writeStringField("name", task.getName());
+            generator.writeBooleanField("done", task.isDone());
+            if (task.getUserId() != null) {
+                generator.writeNumberField("userId", task.getUserId());
+            } else {
+                generator.writeNullField("userId");
+            }
+            generator.writeEndObject();
+        }
+        generator.writeRaw('\n');
+        generator.close();
+    }
+}
@@ -0,0 +1,13 @@
+package com.auth.export;
+
+import com.auth.dto.TaskDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+public interface TaskExporter {
+    ExportFormat format();
+
+    void write(Stream<TaskDTO> tasks, OutputStream out) throws IOException;
+}
@@ -0,0 +1,51 @@
+package com.auth.export;
+
+import com.auth.dto.TaskDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Component
+public class XlsxTaskExporter implements TaskExporter {
+    private static final int ROW_WINDOW = 100;
+
+    @Override
+    public ExportFormat format() {
+        return ExportFormat.XLSX;
+    }
+
+    @Override
+    public void write(Stream<TaskDTO> tasks, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            Sheet sheet = workbook.createSheet("Tasks");
+
+            Row headerRow = sheet.createRow(0);
+            headerRow.createCell(0).setCellValue("ID");
+            headerRow.createCell(1).setCellValue("Name");
+            headerRow.createCell(2).setCellValue("Done");
+            headerRow.createCell(3).setCellValue("User ID");
+
+            int rowNum = 1;
+            Iterator<TaskDTO> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                TaskDTO task = iterator.next();
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(task.getId());
+                row.createCell(1).setCellValue(task.getName());
+                row.createCell(2).setCellValue(task.isDone());
+                row.createCell(3).setCellValue(task.getUserId() != null ? task.getUserId() : -1);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.auth.importer;
+
+import com.auth.export.ExportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Component
+public class CsvTaskImporter implements TaskImporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public ExportFormat format() {
+        return ExportFormat.CSV;
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<ImportRow> rows) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long number = 0;
+        List<String> cells;
+        while ((cells = readRecord(reader)) != null) {
+            number++;
+            if (number == 1 && !cells.isEmpty() && "ID".equalsIgnoreCase(cells.get(0).trim())) {
+                continue;
+            }
+            if (cells.size() == 1 && cells.get(0).isBlank()) {
+                continue;
+            }
+            rows.accept(new ImportRow(number, cells));
+        }
+    }
+
+    /**
+     * Читает одну запись RFC 4180: поля в кавычках могут содержать запятые, переводы строк
+     * и удвоенные кавычки — ровно то, что пишет {@code CsvTaskExporter}.
+     */
+    private List<String> readRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> cells = new ArrayList<>(4);
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                cell.append((char) c);
+            }
+            c = reader.read();
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
@@ -0,0 +1,10 @@
+package com.auth.importer;
+
+import java.util.List;
+
+public record ImportRow(long number, List<String> cells) {
+
+    public String cell(int index) {
+        return index < cells.size() ? cells.get(index) : null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.auth.importer;
+
+import com.auth.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение файла в раскладке экспорта (ID, Name, Done, User ID): строки отдаются
+ * по одной, заголовок пропускается, весь файл в памяти не держится.
+ */
+public interface TaskImporter {
+    ExportFormat format();
+
+    void read(InputStream in, Consumer<ImportRow> rows) throws IOException;
+}
@@ -1,12 +1,133 @@
 package com.auth.repository;
 
+import com.auth.dto.TaskDTO;
 import com.auth.entity.Task;
+import com.auth.entity.TaskRecord;
+import com.auth.export.ExportSignature;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    Page<Task> findAll(Pageable pageable);
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskSearchRepository {
+    String HINT_FETCH_SIZE = "org.hibernate.fetchSize";
+    String EXPORT_FETCH_SIZE = "1000";
+    String SELECT_TASK_DTO = "select new com.auth.dto.TaskDTO(t.id, t.name, t.done, t.user.id, t.version) from Task t";
+    /** Чтения идут по представлению tasks_all: горячие задачи плюс архив. */
+    String SELECT_TASK_RECORD_DTO =
+            "select new com.auth.dto.TaskDTO(t.id, t.name, t.done, t.user.id, t.version) from TaskRecord t";
+
+    @Query(value = SELECT_TASK_RECORD_DTO, countQuery = "select count(t) from TaskRecord t")
+    Page<TaskDTO> findAllDtos(Pageable pageable);
+
+    @Query(value = SELECT_TASK_RECORD_DTO + " where t.done = :done",
+            countQuery = "select count(t) from TaskRecord t where t.done = :done")
+    Page<TaskDTO> findAllDtosByDone(@Param("done") boolean done, Pageable pageable);
+
+    @Query(value = SELECT_TASK_RECORD_DTO + " where t.user.id = :userId",
+            countQuery = "select count(t) from TaskRecord t where t.user.id = :userId")
+    Page<TaskDTO> findAllDtosByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = SELECT_TASK_RECORD_DTO + " where t.user.id = :userId and t.done = :done",
+            countQuery = "select count(t) from TaskRecord t where t.user.id = :userId and t.done = :done")
+    Page<TaskDTO> findAllDtosByUserIdAndDone(@Param("userId") Long userId, @Param("done") boolean done,
+                                             Pageable pageable);
+
+    @Query(SELECT_TASK_RECORD_DTO + " where t.id > :afterId order by t.id")
+    Slice<TaskDTO> findDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SELECT_TASK_RECORD_DTO + " where t.done = :done and t.id > :afterId order by t.id")
+    Slice<TaskDTO> findDtosByDoneAfter(@Param("done") boolean done, @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    @Query(SELECT_TASK_RECORD_DTO + " where t.user.id = :userId and t.id > :afterId order by t.id")
+    Slice<TaskDTO> findDtosByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    @Query(SELECT_TASK_RECORD_DTO + " where t.user.id = :userId and t.done = :done and t.id > :afterId order by t.id")
+    Slice<TaskDTO> findDtosByUserIdAndDoneAfter(@Param("userId") Long userId, @Param("done") boolean done,
+                                                @Param("afterId") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_TASK_RECORD_DTO + " order by t.id")
+    Stream<TaskDTO> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_TASK_RECORD_DTO + " where t.done = :done order by t.id")
+    Stream<TaskDTO> streamAllByDone(@Param("done") boolean done);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_TASK_RECORD_DTO + " where t.user.id = :userId order by t.id")
+    Stream<TaskDTO> streamAllByUserId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_TASK_RECORD_DTO + " where t.user.id = :userId and t.done = :done order by t.id")
+    Stream<TaskDTO> streamAllByUserIdAndDone(@Param("userId") Long userId, @Param("done") boolean done);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id = :id")
+    Optional<Task> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_TASK_DTO + " where t.id in :ids order by t.id")
+    List<TaskDTO> lockAllByIds(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_TASK_DTO + " where t.id in :ids and t.done <> :done order by t.id")
+    List<TaskDTO> lockByIdsAndDoneNot(@Param("ids") Collection<Long> ids, @Param("done") boolean done);
+
+    @Modifying
+    @Query("update Task t set t.done = :done, t.version = t.version + 1, t.updatedAt = current_timestamp " +
+            "where t.id in :ids and t.done <> :done")
+    int setDoneByIds(@Param("ids") Collection<Long> ids, @Param("done") boolean done);
+
+    @Query("select t.id from Task t where t.user.id = :userId and t.done = false")
+    List<Long> findUndoneIdsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.auth.export.ExportSignature(count(t), max(t.updatedAt), coalesce(sum(t.version), 0L)) " +
+            "from TaskRecord t where t.user.id = :userId")
+    ExportSignature exportSignature(@Param("userId") Long userId);
+
+    @Query("select t from TaskRecord t join fetch t.user where t.id = :id")
+    Optional<TaskRecord> findRecordById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_TASK_DTO + " where t.done = true and t.updatedAt < :cutoff order by t.id")
+    List<TaskDTO> lockArchivable(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO tasks_archive (id, name, user_id, version, updated_at) " +
+            "SELECT id, name, user_id, version, updated_at FROM tasks WHERE id IN (:ids)")
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    @Query(nativeQuery = true, value = "SELECT id FROM tasks_archive WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+    List<Long> lockArchivedIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO tasks (id, name, done, user_id, version, updated_at) " +
+            "SELECT id, name, TRUE, user_id, version, updated_at FROM tasks_archive WHERE id IN (:ids)")
+    int restoreFromArchive(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM tasks_archive WHERE id IN (:ids)")
+    int deleteArchivedByIds(@Param("ids") Collection<Long> ids);
 }
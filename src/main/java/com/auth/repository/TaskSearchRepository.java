@@ -0,0 +1,9 @@
+package com.auth.repository;
+
+import com.auth.dto.TaskDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TaskSearchRepository {
+    Page<TaskDTO> search(String query, Long userId, Boolean done, Pageable pageable);
+}
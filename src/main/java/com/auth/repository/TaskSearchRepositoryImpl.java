@@ -0,0 +1,130 @@
+package com.auth.repository;
+
+import com.auth.dto.TaskDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class TaskSearchRepositoryImpl implements TaskSearchRepository {
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "t.id",
+            "name", "t.name",
+            "done", "t.done",
+            "userId", "t.user_id",
+            "version", "t.version");
+
+    private final DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Page<TaskDTO> search(String query, Long userId, Boolean done, Pageable pageable) {
+        String text = query.trim();
+        String pattern = "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%";
+
+        StringBuilder where = new StringBuilder();
+        if (isPostgres()) {
+            where.append(" WHERE (t.search_vector @@ websearch_to_tsquery('simple', :text)")
+                    .append(" OR lower(t.name) LIKE :pattern ESCAPE '!')");
+        } else {
+            where.append(" WHERE lower(t.name) LIKE :pattern ESCAPE '!'");
+        }
+        if (userId != null) {
+            where.append(" AND t.user_id = :userId");
+        }
+        if (done != null) {
+            where.append(" AND t.done = :done");
+        }
+
+        String order = " ORDER BY " + sortColumns(pageable.getSort()) + (isPostgres()
+                ? "ts_rank(t.search_vector, websearch_to_tsquery('simple', :text))"
+                        + " + similarity(t.name, :text) DESC, t.id"
+                : "LOCATE(:lower, lower(t.name)), LENGTH(t.name), t.id");
+
+        Query select = entityManager.createNativeQuery(
+                "SELECT t.id, t.name, t.done, t.user_id, t.version FROM tasks_all t" + where + order);
+        Query count = entityManager.createNativeQuery("SELECT COUNT(*) FROM tasks_all t" + where);
+
+        for (Query q : List.of(select, count)) {
+            q.setParameter("pattern", pattern);
+            if (isPostgres()) {
+                q.setParameter("text", text);
+            }
+            if (userId != null) {
+                q.setParameter("userId", userId);
+            }
+            if (done != null) {
+                q.setParameter("done", done);
+            }
+        }
+        if (!isPostgres()) {
+            select.setParameter("lower", text.toLowerCase(Locale.ROOT));
+        }
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = select.getResultList();
+        List<TaskDTO> content = rows.stream()
+                .map(r -> new TaskDTO(
+                        ((Number) r[0]).longValue(),
+                        (String) r[1],
+                        (Boolean) r[2],
+                        ((Number) r[3]).longValue(),
+                        ((Number) r[4]).longValue()))
+                .toList();
+        long total = ((Number) count.getSingleResult()).longValue();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /** Явная сортировка идёт перед релевантностью; релевантность остаётся порядком внутри равных. */
+    private String sortColumns(Sort sort) {
+        StringBuilder columns = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Сортировка поиска по полю не поддерживается: " + order.getProperty());
+            }
+            columns.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+        }
+        return columns.toString();
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource,
+                        DatabaseMetaData::getDatabaseProductName);
+                result = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+            } catch (MetaDataAccessException e) {
+                result = false;
+            }
+            postgres = result;
+        }
+        return result;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
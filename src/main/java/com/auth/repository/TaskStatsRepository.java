@@ -0,0 +1,28 @@
+package com.auth.repository;
+
+import com.auth.entity.TaskStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskStatsRepository extends JpaRepository<TaskStats, Long> {
+
+    @Modifying
+    @Query("update TaskStats s set s.total = s.total + :total, s.done = s.done + :done where s.userId = :userId")
+    int increment(@Param("userId") Long userId, @Param("total") long total, @Param("done") long done);
+
+    /** Параллельная первая вставка для того же пользователя не падает на уникальном ключе. */
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "INSERT INTO task_stats (user_id, total, done) VALUES (:userId, 0, 0) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    @Query("select coalesce(sum(s.total), 0) from TaskStats s")
+    long sumTotal();
+
+    @Query("select coalesce(sum(s.done), 0) from TaskStats s")
+    long sumDone();
+}
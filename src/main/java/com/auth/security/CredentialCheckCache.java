@@ -0,0 +1,63 @@
+package com.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Кэш недавних успешных проверок пароля. Ключ — HMAC от имени, пароля и текущего хэша
+ * на случайном ключе процесса: пароль в памяти не хранится, а смена пароля сама
+ * делает старые записи недостижимыми.
+ */
+@Component
+public class CredentialCheckCache {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKey secret;
+    private final Cache<String, Boolean> verified;
+
+    public CredentialCheckCache(
+            @Value("${security.login.credential-cache.ttl:PT5M}") Duration ttl,
+            @Value("${security.login.credential-cache.size:10000}") long size,
+            MeterRegistry meterRegistry
+    ) throws GeneralSecurityException {
+        this.secret = KeyGenerator.getInstance(ALGORITHM).generateKey();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl)
+                .build();
+        meterRegistry.gauge("security.login.credential_cache.size", verified, Cache::estimatedSize);
+    }
+
+    public boolean isVerified(String username, CharSequence rawPassword, String encodedPassword) {
+        return verified.getIfPresent(key(username, rawPassword, encodedPassword)) != null;
+    }
+
+    public void markVerified(String username, CharSequence rawPassword, String encodedPassword) {
+        verified.put(key(username, rawPassword, encodedPassword), Boolean.TRUE);
+    }
+
+    private String key(String username, CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secret);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(encodedPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC недоступен", e);
+        }
+    }
+}
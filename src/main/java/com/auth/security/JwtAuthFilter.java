@@ -27,16 +27,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 .filter(h -> h.startsWith("Bearer "))
                 .map(h -> h.substring(7));
 
-        if (authHeader.isPresent() && jwt.validate(authHeader.get())) {
-            var token = authHeader.get();
-            var username = jwt.getUsername(token);
-            var roles = jwt.getRoles(token).stream()
-                    .map(SimpleGrantedAuthority::new)
+        authHeader.flatMap(jwt::authenticate).ifPresent(principal -> {
+            // в токене роли без префикса, как в user_roles; hasRole ждёт ROLE_ — как в UserSecurity
+            var roles = principal.roles().stream()
+                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                     .toList();
 
-            var authentication = new UsernamePasswordAuthenticationToken(username, null, roles);
+            var authentication = new UsernamePasswordAuthenticationToken(principal.username(), null, roles);
             SecurityContextHolder.getContext().setAuthentication(authentication);
-        }
+        });
 
         chain.doFilter(req, res);
     }
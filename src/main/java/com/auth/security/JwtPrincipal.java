@@ -0,0 +1,15 @@
+package com.auth.security;
+
+import java.time.Instant;
+import java.util.List;
+
+public record JwtPrincipal(String username, List<String> roles, Instant expiresAt) {
+
+    public JwtPrincipal {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -1,27 +1,69 @@
 package com.auth.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
     private final Key key;
     private final long validityMs;
+    private final JwtParser parser;
+    private final Cache<String, JwtPrincipal> verified;
+    private final Timer cacheHitTimer;
+    private final Timer cacheMissTimer;
 
     public JwtTokenProvider(
             @Value("${security.jwt.secret}") String secret,
-            @Value("${security.jwt.ttl}") Duration ttl
+            @Value("${security.jwt.ttl}") Duration ttl,
+            @Value("${security.jwt.cache-size:10000}") long cacheSize,
+            MeterRegistry meterRegistry
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.validityMs = ttl.toMillis();
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String k, JwtPrincipal principal, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), principal.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String k, JwtPrincipal principal, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(k, principal, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String k, JwtPrincipal principal, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.cacheHitTimer = meterRegistry.timer("security.jwt.validation", "cache", "hit");
+        this.cacheMissTimer = meterRegistry.timer("security.jwt.validation", "cache", "miss");
     }
 
     public String generateToken(String username, List<String> roles) {
@@ -37,35 +79,71 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public boolean validate(String token) {
+    public Optional<JwtPrincipal> authenticate(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        String cacheKey = hash(token);
+        Instant now = Instant.now();
+
+        JwtPrincipal cached = verified.getIfPresent(cacheKey);
+        if (cached != null) {
+            cacheHitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            verified.invalidate(cacheKey);
+            return Optional.empty();
+        }
+
         try {
-            parser().parseClaimsJws(token);
-            return true;
+            JwtPrincipal principal = toPrincipal(parser.parseClaimsJws(token).getBody());
+            if (principal.expiresAt() != null) {
+                verified.put(cacheKey, principal);
+            }
+            return Optional.of(principal);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
+        } finally {
+            cacheMissTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
+    public boolean validate(String token) {
+        return authenticate(token).isPresent();
+    }
+
     public String getUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return principal(token).username();
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getRoles(String token) {
-        Object val = claims(token).get("roles");
-        return (List<String>) val;
+        return principal(token).roles();
+    }
+
+    private JwtPrincipal principal(String token) {
+        return authenticate(token)
+                .orElseThrow(() -> new MalformedJwtException("Недействительный токен"));
     }
 
-    private JwtParser parser() {
-        return Jwts.parserBuilder().setSigningKey(key).build();
+    @SuppressWarnings("unchecked")
+    private JwtPrincipal toPrincipal(Claims claims) {
+        Object roles = claims.get("roles");
+        Date exp = claims.getExpiration();
+        return new JwtPrincipal(
+                claims.getSubject(),
+                roles instanceof List<?> list ? (List<String>) list : List.of(),
+                exp != null ? exp.toInstant() : null
+        );
     }
 
-    private Claims claims(String token) {
-        return parser().parseClaimsJws(token).getBody();
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.auth.security;
+
+import com.auth.exception.TooManyLoginAttemptsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничивает число полных проверок пароля на пользователя в фиксированном окне.
+ * Окно начинается с первой попытки и истекает вместе с записью в кэше.
+ */
+@Component
+public class LoginRateLimiter {
+    private final int maxAttempts;
+    private final Duration window;
+    private final Cache<String, Window> windows;
+    private final Counter rejected;
+
+    public LoginRateLimiter(
+            @Value("${security.login.max-attempts:20}") int maxAttempts,
+            @Value("${security.login.window:PT1M}") Duration window,
+            @Value("${security.login.cache-size:10000}") long cacheSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxAttempts = maxAttempts;
+        this.window = window;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(window)
+                .build();
+        this.rejected = meterRegistry.counter("security.login.rate_limited");
+    }
+
+    public void acquire(String username) {
+        Window current = windows.get(username, k -> new Window(Instant.now()));
+        if (current.attempts.incrementAndGet() > maxAttempts) {
+            rejected.increment();
+            Duration retryAfter = Duration.between(Instant.now(), current.start.plus(window));
+            throw new TooManyLoginAttemptsException("Слишком много попыток входа: " + username,
+                    retryAfter.isNegative() ? Duration.ZERO : retryAfter);
+        }
+    }
+
+    private record Window(Instant start, AtomicInteger attempts) {
+        Window(Instant start) {
+            this(start, new AtomicInteger());
+        }
+    }
+}
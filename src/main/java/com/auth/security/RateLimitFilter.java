@@ -0,0 +1,80 @@
+package com.auth.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RequestRateLimiter limiter;
+
+    public RateLimitFilter(RequestRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+
+        RequestRateLimiter.Decision decision;
+        try {
+            decision = limiter.acquire(subject(req), endpointClass(req));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            res.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        if (!decision.allowed()) {
+            long seconds = Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000);
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            res.setContentType("text/plain;charset=UTF-8");
+            res.getWriter().write("Слишком много запросов, повторите через " + seconds + " с");
+            return;
+        }
+
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            if (decision.held() != null) {
+                decision.held().release();
+            }
+        }
+    }
+
+    private String subject(HttpServletRequest req) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + req.getRemoteAddr();
+    }
+
+    private RequestRateLimiter.EndpointClass endpointClass(HttpServletRequest req) {
+        String uri = req.getRequestURI();
+        boolean jobStatus = uri.contains("/export/jobs/") && !uri.endsWith("/file");
+        if (uri.contains("/export") && !jobStatus) {
+            return RequestRateLimiter.EndpointClass.EXPORT;
+        }
+        String method = req.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return RequestRateLimiter.EndpointClass.READ;
+        }
+        return RequestRateLimiter.EndpointClass.WRITE;
+    }
+}
@@ -0,0 +1,100 @@
+package com.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class RequestRateLimiter {
+
+    public enum EndpointClass { READ, WRITE, EXPORT }
+
+    /** Итог проверки: {@code retryAfter == null} — запрос пропущен. */
+    public record Decision(Duration retryAfter, Semaphore held) {
+        static final Decision ALLOWED = new Decision(null, null);
+
+        public boolean allowed() {
+            return retryAfter == null;
+        }
+    }
+
+    private final boolean enabled;
+    private final double[] rates = new double[EndpointClass.values().length];
+    private final int[] bursts = new int[EndpointClass.values().length];
+    private final Cache<String, TokenBucket> buckets;
+    private final Semaphore exportSlots;
+    private final Duration exportQueueTimeout;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public RequestRateLimiter(
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.read.rate:50}") double readRate,
+            @Value("${app.rate-limit.read.burst:100}") int readBurst,
+            @Value("${app.rate-limit.write.rate:10}") double writeRate,
+            @Value("${app.rate-limit.write.burst:20}") int writeBurst,
+            @Value("${app.rate-limit.export.rate:0.1}") double exportRate,
+            @Value("${app.rate-limit.export.burst:3}") int exportBurst,
+            @Value("${app.rate-limit.export.max-concurrent:4}") int exportConcurrency,
+            @Value("${app.rate-limit.export.queue-timeout:PT1S}") Duration exportQueueTimeout,
+            @Value("${app.rate-limit.idle-timeout:PT10M}") Duration idleTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        configure(EndpointClass.READ, readRate, readBurst);
+        configure(EndpointClass.WRITE, writeRate, writeBurst);
+        configure(EndpointClass.EXPORT, exportRate, exportBurst);
+        this.buckets = Caffeine.newBuilder().expireAfterAccess(idleTimeout).build();
+        this.exportSlots = new Semaphore(exportConcurrency, true);
+        this.exportQueueTimeout = exportQueueTimeout;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("http.ratelimit.export.queued", queued);
+        meterRegistry.gauge("http.ratelimit.export.active", exportSlots,
+                s -> exportConcurrency - s.availablePermits());
+    }
+
+    public Decision acquire(String subject, EndpointClass endpoint) throws InterruptedException {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        TokenBucket bucket = buckets.get(subject + '|' + endpoint.name(),
+                k -> new TokenBucket(rates[endpoint.ordinal()], bursts[endpoint.ordinal()]));
+        long wait = bucket.tryAcquire(System.nanoTime());
+        if (wait > 0) {
+            reject(endpoint, "rate");
+            return new Decision(Duration.ofNanos(wait), null);
+        }
+        if (endpoint != EndpointClass.EXPORT) {
+            return Decision.ALLOWED;
+        }
+
+        queued.incrementAndGet();
+        try {
+            if (!exportSlots.tryAcquire(exportQueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                reject(endpoint, "concurrency");
+                return new Decision(exportQueueTimeout, null);
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+        return new Decision(null, exportSlots);
+    }
+
+    private void configure(EndpointClass endpoint, double rate, int burst) {
+        rates[endpoint.ordinal()] = rate;
+        bursts[endpoint.ordinal()] = burst;
+    }
+
+    private void reject(EndpointClass endpoint, String reason) {
+        meterRegistry.counter("http.ratelimit.rejected",
+                "class", endpoint.name().toLowerCase(Locale.ROOT), "reason", reason).increment();
+    }
+}
@@ -0,0 +1,38 @@
+package com.auth.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+    private final CacheManager cacheManager;
+
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                Map<String, Long> values = new LinkedHashMap<>();
+                values.put("hits", stats.hitCount());
+                values.put("misses", stats.missCount());
+                values.put("evictions", stats.evictionCount());
+                values.put("size", caffeineCache.getNativeCache().estimatedSize());
+                result.put(name, values);
+            }
+        }
+        return result;
+    }
+}
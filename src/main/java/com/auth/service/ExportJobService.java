@@ -0,0 +1,140 @@
+package com.auth.service;
+
+import com.auth.exception.WrongIdException;
+import com.auth.export.ExportFormat;
+import com.auth.export.ExportJob;
+import com.auth.export.ExportScope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class ExportJobService {
+    private final TaskService taskService;
+    private final TaskExecutor exportExecutor;
+    private final Path exportDir;
+    private final Duration fileTtl;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ExportJob> activeJobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(
+            TaskService taskService,
+            @Qualifier("exportExecutor") TaskExecutor exportExecutor,
+            @Value("${app.export-dir}") String exportDir,
+            @Value("${app.export.file-ttl:PT10M}") Duration fileTtl
+    ) {
+        this.taskService = taskService;
+        this.exportExecutor = exportExecutor;
+        this.exportDir = Paths.get(exportDir);
+        this.fileTtl = fileTtl;
+    }
+
+    public ExportJob submit(ExportScope scope, Long userId, ExportFormat format, boolean gzip) throws IOException {
+        evictExpiredJobs();
+        Files.createDirectories(exportDir);
+
+        String fileName = scope.fileName(userId, format, gzip);
+        Path path = exportDir.resolve(fileName);
+
+        ExportJob fresh = new ExportJob(scope, userId, format, gzip, fileName, path);
+        ExportJob job = activeJobs.compute(fileName, (key, current) -> {
+            if (current != null && current.getStatus() != ExportJob.Status.FAILED
+                    && (!current.isFinished() || isFresh(current.getPath()))) {
+                return current;
+            }
+            return fresh;
+        });
+
+        if (job != fresh) {
+            log.info("Повторно используется экспорт {} (задание {})", fileName, job.getId());
+            return job;
+        }
+
+        jobs.put(job.getId(), job);
+        if (isFresh(path)) {
+            log.info("Файл экспорта {} ещё актуален, пересборка не требуется", fileName);
+            job.done();
+            return job;
+        }
+
+        try {
+            exportExecutor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            activeJobs.remove(fileName, job);
+            throw e;
+        }
+        log.info("Создано задание экспорта {} для {}", job.getId(), fileName);
+        return job;
+    }
+
+    public ExportJob getJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new WrongIdException("Задание экспорта не найдено: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(ExportJob job) {
+        job.running();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(exportDir, job.getFileName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                taskService.export(job.getScope(), job.getUserId(), job.getFormat(), job.isGzip(), out);
+            }
+            Files.move(tmp, job.getPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.done();
+            log.info("Задание экспорта {} завершено: {}", job.getId(), job.getPath());
+        } catch (Exception e) {
+            log.error("Задание экспорта {} завершилось ошибкой", job.getId(), e);
+            job.failed(e.getMessage());
+            deleteQuietly(tmp);
+        }
+    }
+
+    private boolean isFresh(Path path) {
+        try {
+            if (!Files.isRegularFile(path)) {
+                return false;
+            }
+            FileTime modified = Files.getLastModifiedTime(path);
+            return modified.toInstant().isAfter(Instant.now().minus(fileTtl));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void evictExpiredJobs() {
+        Instant threshold = Instant.now().minus(fileTtl);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.auth.service;
+
+import com.auth.export.ExportFormat;
+import com.auth.export.ExportScope;
+import com.auth.export.ExportSignature;
+import com.auth.repository.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая сборка экспортов для заданных ({@code user-ids}) и самых запрашиваемых
+ * ({@code top-users}) пользователей в {@code app.export-dir/precomputed}.
+ * <p>
+ * Пересборка инкрементальная: рядом с файлами лежит сигнатура задач пользователя
+ * ({@link ExportSignature}), и если она не изменилась, пользователь пропускается.
+ * Скачивание такого файла — чистый файловый I/O, но данные отстают от БД не больше
+ * чем на период {@code cron}.
+ */
+@Service
+@Slf4j
+public class ExportPrecomputeService {
+    private static final String SIGNATURE_SUFFIX = ".signature";
+
+    private final TaskService taskService;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path dir;
+    private final List<Long> configuredUsers;
+    private final int topUsers;
+    private final List<ExportFormat> formats;
+
+    private final Map<Long, AtomicLong> requests = new ConcurrentHashMap<>();
+
+    public ExportPrecomputeService(
+            TaskService taskService,
+            TaskRepository taskRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.export.precompute.enabled:false}") boolean enabled,
+            @Value("${app.export-dir}") String exportDir,
+            @Value("${app.export.precompute.user-ids:}") List<Long> configuredUsers,
+            @Value("${app.export.precompute.top-users:10}") int topUsers,
+            @Value("${app.export.precompute.formats:XLSX}") List<ExportFormat> formats
+    ) {
+        this.taskService = taskService;
+        this.taskRepository = taskRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.dir = Paths.get(exportDir, "precomputed");
+        this.configuredUsers = configuredUsers;
+        this.topUsers = topUsers;
+        this.formats = formats;
+    }
+
+    public void recordRequest(Long userId) {
+        if (enabled && userId != null) {
+            requests.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public Optional<Path> find(ExportScope scope, Long userId, ExportFormat format, boolean gzip) {
+        if (!enabled || userId == null || gzip || !formats.contains(format)) {
+            return Optional.empty();
+        }
+        Path path = dir.resolve(scope.fileName(userId, format, false));
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        meterRegistry.counter("task.export.precompute.served", "format", format.name()).increment();
+        return Optional.of(path);
+    }
+
+    @Scheduled(cron = "${app.export.precompute.cron:0 5 * * * *}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> users = new LinkedHashSet<>(configuredUsers);
+        users.addAll(mostRequested());
+
+        int built = 0;
+        for (Long userId : users) {
+            try {
+                if (refresh(userId)) {
+                    built++;
+                }
+            } catch (IOException | RuntimeException e) {
+                meterRegistry.counter("task.export.precompute", "result", "failed").increment();
+                log.error("Не удалось предсобрать экспорт пользователя {}", userId, e);
+            }
+        }
+        log.info("Предсборка экспортов: пользователей {}, пересобрано {}", users.size(), built);
+    }
+
+    /**
+     * Сигнатура и каждый файл читаются своими короткими read-only транзакциями, то есть с
+     * одного источника (реплики, если она настроена). Если за время сборки сигнатура
+     * изменилась, она не записывается — файлы пересоберутся при следующем запуске, и
+     * старый файл со свежей сигнатурой не застрянет.
+     */
+    private boolean refresh(Long userId) throws IOException {
+        Files.createDirectories(dir);
+        String signature = signature(userId);
+        Path signatureFile = dir.resolve(ExportScope.ALL.baseName(userId) + SIGNATURE_SUFFIX);
+        if (Files.isRegularFile(signatureFile)
+                && signature.equals(Files.readString(signatureFile, StandardCharsets.UTF_8))
+                && allFilesPresent(userId)) {
+            meterRegistry.counter("task.export.precompute", "result", "skipped").increment();
+            return false;
+        }
+
+        Files.deleteIfExists(signatureFile);
+        for (ExportScope scope : ExportScope.values()) {
+            for (ExportFormat format : formats) {
+                // TaskService.export — своя read-only транзакция на файл
+                build(scope, userId, format);
+            }
+        }
+        if (!signature.equals(signature(userId))) {
+            meterRegistry.counter("task.export.precompute", "result", "changed").increment();
+            log.debug("Задачи пользователя {} изменились во время предсборки, сигнатура не записана", userId);
+            return true;
+        }
+        Files.writeString(signatureFile, signature, StandardCharsets.UTF_8);
+        meterRegistry.counter("task.export.precompute", "result", "built").increment();
+        return true;
+    }
+
+    private String signature(Long userId) {
+        return readOnlyTransaction.execute(status -> taskRepository.exportSignature(userId).encode());
+    }
+
+    private void build(ExportScope scope, Long userId, ExportFormat format) throws IOException {
+        String fileName = scope.fileName(userId, format, false);
+        Path tmp = Files.createTempFile(dir, fileName, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                taskService.export(scope, userId, format, false, out);
+            }
+            Files.move(tmp, dir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private boolean allFilesPresent(Long userId) {
+        for (ExportScope scope : ExportScope.values()) {
+            for (ExportFormat format : formats) {
+                if (!Files.isRegularFile(dir.resolve(scope.fileName(userId, format, false)))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Топ по числу запросов; счётчики затем делятся пополам, чтобы рейтинг отражал свежий спрос. */
+    private List<Long> mostRequested() {
+        List<Long> top = requests.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, AtomicLong> e) -> e.getValue().get()).reversed())
+                .limit(topUsers)
+                .map(Map.Entry::getKey)
+                .toList();
+        requests.values().forEach(count -> count.updateAndGet(c -> c / 2));
+        requests.values().removeIf(count -> count.get() == 0);
+        return top;
+    }
+}
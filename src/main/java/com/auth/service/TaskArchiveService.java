@@ -0,0 +1,92 @@
+package com.auth.service;
+
+import com.auth.dto.TaskDTO;
+import com.auth.repository.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Переносит выполненные задачи, не менявшиеся дольше {@code app.archive.after}, из tasks в
+ * tasks_archive пачками по {@code app.archive.batch-size}, каждая в своей транзакции.
+ * Чтения видят обе таблицы через представление tasks_all; запись в архивную задачу
+ * сначала возвращает её в tasks (см. {@link TaskService}).
+ */
+@Service
+@Slf4j
+public class TaskArchiveService {
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration after;
+    private final int batchSize;
+
+    public TaskArchiveService(
+            TaskRepository taskRepository,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.after:P30D}") Duration after,
+            @Value("${app.archive.batch-size:1000}") int batchSize
+    ) {
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.after = after;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 15 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    public long archive() {
+        Instant cutoff = Instant.now().minus(after);
+        long moved = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> moveBatch(cutoff));
+            moved += batch;
+        } while (batch == batchSize);
+
+        meterRegistry.counter("task.archive.moved").increment(moved);
+        log.info("В архив перенесено задач: {} (выполнены и не менялись с {})", moved, cutoff);
+        return moved;
+    }
+
+    private int moveBatch(Instant cutoff) {
+        List<Long> ids = taskRepository.lockArchivable(cutoff, PageRequest.ofSize(batchSize)).stream()
+                .map(TaskDTO::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        taskRepository.copyToArchive(ids);
+        taskRepository.deleteByIds(ids);
+
+        Cache cache = cacheManager.getCache(TaskService.TASKS_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+        return ids.size();
+    }
+}
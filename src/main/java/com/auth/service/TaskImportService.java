@@ -0,0 +1,182 @@
+package com.auth.service;
+
+import com.auth.dto.ImportErrorDTO;
+import com.auth.dto.ImportReportDTO;
+import com.auth.entity.Task;
+import com.auth.entity.User;
+import com.auth.export.ExportFormat;
+import com.auth.importer.ImportRow;
+import com.auth.importer.TaskImporter;
+import com.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class TaskImportService {
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final TaskService taskService;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final List<TaskImporter> importers;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public TaskImportService(
+            TaskService taskService,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            List<TaskImporter> importers,
+            @Value("${app.import.batch-size:1000}") int batchSize,
+            @Value("${app.import.max-errors:1000}") int maxErrors
+    ) {
+        this.taskService = taskService;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.importers = importers;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Импортирует задачи пачками: каждая пачка проверяется одним запросом по user id и
+     * сохраняется отдельной транзакцией через {@link TaskService#addTasks}. В памяти
+     * одновременно только текущая пачка и ограниченный список ошибок.
+     */
+    public ImportReportDTO importTasks(ExportFormat format, InputStream in) throws IOException {
+        TaskImporter importer = importers.stream()
+                .filter(i -> i.format() == format)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Импорт не поддерживает формат: " + format));
+
+        ImportReportDTO report = new ImportReportDTO();
+        List<PendingTask> batch = new ArrayList<>(batchSize);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            importer.read(in, row -> {
+                PendingTask task = parse(row, report);
+                if (task == null) {
+                    return;
+                }
+                batch.add(task);
+                if (batch.size() == batchSize) {
+                    flush(batch, report);
+                }
+            });
+            flush(batch, report);
+        } finally {
+            sample.stop(meterRegistry.timer("task.import.duration", "format", format.name()));
+            meterRegistry.summary("task.import.rows", "format", format.name()).record(report.getImported());
+        }
+        log.info("Импорт {} завершён: загружено {}, ошибок {}", format, report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void flush(List<PendingTask> batch, ImportReportDTO report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<Long> userIds = new HashSet<>();
+        batch.forEach(t -> userIds.add(t.userId()));
+        Set<Long> existing = new HashSet<>(userRepository.findExistingIds(userIds));
+
+        List<Task> tasks = new ArrayList<>(batch.size());
+        List<Long> rows = new ArrayList<>(batch.size());
+        for (PendingTask pending : batch) {
+            if (!existing.contains(pending.userId())) {
+                error(report, pending.row(), "Пользователь не найден: " + pending.userId());
+                continue;
+            }
+            Task task = new Task(pending.name(), pending.done());
+            User owner = new User();
+            owner.setId(pending.userId());
+            task.setUser(owner);
+            tasks.add(task);
+            rows.add(pending.row());
+        }
+        if (!tasks.isEmpty()) {
+            try {
+                taskService.addTasks(tasks);
+                report.setImported(report.getImported() + tasks.size());
+            } catch (DataAccessException | TransactionException e) {
+                // например, пользователя удалили после проверки: пачка откатилась, импорт продолжается
+                log.warn("Импорт: пачка из {} строк не сохранена", tasks.size(), e);
+                String message = "Пачка не сохранена: " + e.getMostSpecificCause().getMessage();
+                rows.forEach(row -> error(report, row, message));
+            }
+        }
+        batch.clear();
+    }
+
+    private PendingTask parse(ImportRow row, ImportReportDTO report) {
+        String name = row.cell(1);
+        if (name == null || name.isBlank()) {
+            error(report, row.number(), "Пустое название задачи");
+            return null;
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            error(report, row.number(), "Название длиннее " + MAX_NAME_LENGTH + " символов");
+            return null;
+        }
+        Boolean done = parseDone(row.cell(2));
+        if (done == null) {
+            error(report, row.number(), "Некорректное значение Done: " + row.cell(2));
+            return null;
+        }
+        Long userId = parseId(row.cell(3));
+        if (userId == null || userId <= 0) {
+            error(report, row.number(), "Некорректный User ID: " + row.cell(3));
+            return null;
+        }
+        return new PendingTask(row.number(), name, done, userId);
+    }
+
+    private Boolean parseDone(String value) {
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "да" -> true;
+            case "false", "0", "no", "нет" -> false;
+            default -> null;
+        };
+    }
+
+    private Long parseId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim()).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void error(ImportReportDTO report, long row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportErrorDTO(row, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private record PendingTask(long row, String name, boolean done, Long userId) {
+    }
+}
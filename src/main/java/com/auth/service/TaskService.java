@@ -1,90 +1,306 @@
 package com.auth.service;
 
+import com.auth.dto.CursorPage;
+import com.auth.dto.TaskDTO;
 import com.auth.entity.Task;
+import com.auth.entity.TaskRecord;
+import com.auth.event.TaskEvent;
+import com.auth.event.TaskEventBatch;
+import com.auth.exception.VersionMismatchException;
 import com.auth.exception.WrongIdException;
+import com.auth.export.CountingOutputStream;
+import com.auth.export.ExportFormat;
+import com.auth.export.ExportScope;
+import com.auth.export.TaskExporter;
 import com.auth.repository.TaskRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("task.service")
 public class TaskService {
-    private final TaskRepository taskRepository;
+    public static final String TASKS_CACHE = "tasks";
 
-    @Value("${app.export-dir}")
-    private String exportDir;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int BULK_CHUNK_SIZE = 1000;
 
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final TaskStatsService taskStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<TaskExporter> exporters;
+
+    @Transactional
     public Task addTask(Task task) {
         Task savedTask = taskRepository.save(task);
+        taskStatsService.apply(userId(savedTask), 1, savedTask.isDone() ? 1 : 0);
+        publish(TaskEvent.Type.CREATED, toDto(savedTask));
         log.info("Задача сохранена: {}", savedTask);
         return savedTask;
     }
 
+    @Transactional
+    public List<Task> addTasks(List<Task> tasks) {
+        List<Task> saved = new ArrayList<>(tasks.size());
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (List<Task> chunk : chunks(tasks)) {
+            List<TaskDTO> created = new ArrayList<>(chunk.size());
+            for (Task task : taskRepository.saveAll(chunk)) {
+                addDelta(deltas, userId(task), 1, task.isDone() ? 1 : 0);
+                created.add(toDto(task));
+                saved.add(task);
+            }
+            publish(TaskEvent.Type.CREATED, created);
+            taskRepository.flush();
+            entityManager.clear();
+        }
+        taskStatsService.apply(deltas);
+        log.info("Сохранено задач: {}", saved.size());
+        return saved;
+    }
+
+    @Transactional
+    public int markTasksDone(List<Long> ids) {
+        return setTasksStatus(ids, true);
+    }
+
+    /**
+     * Set-based смена статуса: строки, которые действительно меняются, блокируются,
+     * затем один UPDATE ... WHERE id IN (...) на чанк.
+     */
+    @Transactional
+    public int setTasksStatus(Collection<Long> ids, boolean done) {
+        int updated = 0;
+        Map<Long, long[]> deltas = new HashMap<>();
+        List<Long> idList = List.copyOf(ids);
+        for (List<Long> chunk : chunks(idList)) {
+            if (!done) {
+                restoreArchived(chunk);
+            }
+            List<TaskDTO> changing = taskRepository.lockByIdsAndDoneNot(chunk, done);
+            if (changing.isEmpty()) {
+                continue;
+            }
+            changing.forEach(t -> addDelta(deltas, t.getUserId(), 0, done ? 1 : -1));
+            publish(done ? TaskEvent.Type.DONE : TaskEvent.Type.UPDATED, changing.stream()
+                    .map(t -> new TaskDTO(t.getId(), t.getName(), done, t.getUserId(), t.getVersion() + 1))
+                    .toList());
+            updated += taskRepository.setDoneByIds(changing.stream().map(TaskDTO::getId).toList(), done);
+        }
+        taskStatsService.apply(deltas);
+        evictTasks(idList);
+        log.info("Статус {} установлен задачам: {}", done, updated);
+        return updated;
+    }
+
+    @Transactional
+    public int markUserTasksDone(Long userId) {
+        List<Long> ids = taskRepository.findUndoneIdsByUserId(userId);
+        log.info("Отмечаются выполненными задачи пользователя {}: {}", userId, ids.size());
+        return markTasksDone(ids);
+    }
+
+    @Transactional
+    public int deleteTasks(List<Long> ids) {
+        int deleted = 0;
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            restoreArchived(chunk);
+            List<TaskDTO> existing = taskRepository.lockAllByIds(chunk);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            existing.forEach(t -> addDelta(deltas, t.getUserId(), -1, t.isDone() ? -1 : 0));
+            publish(TaskEvent.Type.DELETED, existing);
+            deleted += taskRepository.deleteByIds(existing.stream().map(TaskDTO::getId).toList());
+        }
+        taskStatsService.apply(deltas);
+        evictTasks(ids);
+        log.info("Удалено задач: {}", deleted);
+        return deleted;
+    }
+
+    /**
+     * Возвращает задачи из архива в tasks, чтобы дальше их менял обычный путь с блокировками.
+     * Статистику не трогает: архивные задачи в ней и так учтены.
+     */
+    private void restoreArchived(Collection<Long> ids) {
+        List<Long> archived = taskRepository.lockArchivedIds(ids);
+        if (archived.isEmpty()) {
+            return;
+        }
+        taskRepository.restoreFromArchive(archived);
+        taskRepository.deleteArchivedByIds(archived);
+        log.info("Возвращено из архива задач: {}", archived.size());
+    }
+
+    private Optional<Task> lockTask(Long id) {
+        restoreArchived(List.of(id));
+        Optional<Task> task = taskRepository.findByIdForUpdate(id);
+        if (task.isEmpty()) {
+            // пока ждали блокировку, архиватор мог перенести строку в tasks_archive — возвращаем её
+            restoreArchived(List.of(id));
+            task = taskRepository.findByIdForUpdate(id);
+        }
+        return task;
+    }
+
+    /** Кэш транзакционный (см. {@link com.auth.config.CacheConfig}) — сброс выполнится после коммита. */
+    private void evictTasks(List<Long> ids) {
+        Cache cache = cacheManager.getCache(TASKS_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    private void addDelta(Map<Long, long[]> deltas, Long userId, long total, long done) {
+        long[] delta = deltas.computeIfAbsent(userId, k -> new long[2]);
+        delta[0] += total;
+        delta[1] += done;
+    }
+
+    private void publish(TaskEvent.Type type, TaskDTO task) {
+        eventPublisher.publishEvent(new TaskEvent(type, task));
+    }
+
+    private void publish(TaskEvent.Type type, List<TaskDTO> tasks) {
+        eventPublisher.publishEvent(new TaskEventBatch(type, tasks));
+    }
+
+    private TaskDTO toDto(Task task) {
+        return new TaskDTO(task.getId(), task.getName(), task.isDone(), userId(task), task.getVersion());
+    }
+
+    private Long userId(Task task) {
+        return task.getUser() != null ? task.getUser().getId() : null;
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(items.subList(i, Math.min(i + BULK_CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Читает с primary, а не с реплики: результат попадает в кэш, и отставшая строка жила бы
+     * там весь TTL, отдавая устаревший ETag.
+     */
+    @Cacheable(cacheNames = TASKS_CACHE, key = "#id", unless = "#result == null")
+    @Transactional
     public Optional<Task> getTaskById(Long id) {
         log.info("Получение задачи с id: {}", id);
-        return taskRepository.findById(id);
+        return taskRepository.findById(id)
+                .or(() -> taskRepository.findRecordById(id).map(TaskRecord::toTask));
     }
 
-    public Task updateTask(Long id, Task task) {
+    @Transactional
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
+    public Task updateTask(Long id, Task task, Long expectedVersion) {
         log.info("Получена задача: {}", task);
 
-        Task getTask = taskRepository.findById(id)
+        Task getTask = lockTask(id)
                 .orElseThrow(() -> new WrongIdException("Задача не найдена: " + task.getId()));
+        checkVersion(getTask, expectedVersion);
 
         log.info("Задача до обновления: {}", getTask.toString());
 
+        boolean wasDone = getTask.isDone();
         getTask.setName(task.getName());
         getTask.setDone(task.isDone());
 
-        Task savedTask = taskRepository.save(getTask);
+        // flush, чтобы @Version уже был увеличен: событие несёт версию для If-Match
+        Task savedTask = taskRepository.saveAndFlush(getTask);
+        if (wasDone != savedTask.isDone()) {
+            taskStatsService.apply(userId(savedTask), 0, savedTask.isDone() ? 1 : -1);
+        }
+        publish(TaskEvent.Type.UPDATED, toDto(savedTask));
 
         log.info("Задача обновлена: {}", savedTask);
 
         return savedTask;
     }
 
-    public Page<Task> getTasks(Pageable pageable) {
-        return taskRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getTasks(Pageable pageable) {
+        return recordRows("findAll", taskRepository.findAllDtos(pageable));
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
     public void deleteTask(Long id) {
         Task task = getTask(id);
         taskRepository.delete(task);
+        taskStatsService.apply(userId(task), -1, task.isDone() ? -1 : 0);
+        publish(TaskEvent.Type.DELETED, toDto(task));
     }
 
-    private Task updateTaskStatus(Long id, boolean status) {
+    @Transactional
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
+    public Task updateTaskStatus(Long id, boolean status, Long expectedVersion) {
         Task task = getTask(id);
+        checkVersion(task, expectedVersion);
+        boolean wasDone = task.isDone();
         task.setDone(status);
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = taskRepository.saveAndFlush(task);
+        if (wasDone != status) {
+            taskStatsService.apply(userId(savedTask), 0, status ? 1 : -1);
+            publish(status ? TaskEvent.Type.DONE : TaskEvent.Type.UPDATED, toDto(savedTask));
+        }
         log.info("Статус обновлён: {}", savedTask.toString());
         return savedTask;
     }
 
-    public void markAsDoneTask(Long id) {
-        Task task = updateTaskStatus(id, true);
+    @Transactional
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
+    public Task markAsDoneTask(Long id, Long expectedVersion) {
+        Task task = updateTaskStatus(id, true, expectedVersion);
         log.info("Задача выполнена: {}", task.toString());
+        return task;
+    }
+
+    private void checkVersion(Task task, Long expectedVersion) {
+        if (expectedVersion != null && task.getVersion() != expectedVersion) {
+            log.warn("Версия задачи {} изменилась: ожидалась {}, текущая {}",
+                    task.getId(), expectedVersion, task.getVersion());
+            throw new VersionMismatchException("Задача %d была изменена: текущая версия %d"
+                    .formatted(task.getId(), task.getVersion()));
+        }
     }
 
     private Task getTask(Long id) {
-        Optional<Task> optionalTask = getTaskById(id);
+        Optional<Task> optionalTask = lockTask(id);
 
         if (optionalTask.isEmpty()) {
             log.error("Не удалось найти задачу с id: {}", id);
@@ -93,99 +309,114 @@ public class TaskService {
         return optionalTask.get();
     }
 
-    public Page<Task> getUndoneTasks(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getUndoneTasks(Pageable pageable) {
         return getTaskByStatus(pageable, false);
     }
 
-    public Page<Task> getDoneTasks(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getDoneTasks(Pageable pageable) {
         return getTaskByStatus(pageable, true);
     }
 
-    private Page<Task> getTaskByStatus(Pageable pageable, boolean status) {
-        List<Task> allTasks = taskRepository.findAll().stream()
-                .filter(t -> t.isDone() == status)
-                .collect(Collectors.toList());
-        return new PageImpl<>(allTasks, pageable, allTasks.size());
+    private Page<TaskDTO> getTaskByStatus(Pageable pageable, boolean status) {
+        return recordRows("findAllByDone", taskRepository.findAllDtosByDone(status, pageable));
     }
 
-    public Page<Task> getAllTasksByUserId(Long userId, Pageable pageable){
-       List<Task> allTasksByUserId = taskRepository.findAll().stream()
-               .filter(t -> t.getUser().getId().equals(userId))
-               .collect(Collectors.toList());
-       return new PageImpl<>(allTasksByUserId, pageable, allTasksByUserId.size());
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getAllTasksByUserId(Long userId, Pageable pageable){
+        return recordRows("findAllByUserId", taskRepository.findAllDtosByUserId(userId, pageable));
     }
 
-    public Page<Task> getAllUndoneTasksByUserId(Long userId, Pageable pageable){
-        List<Task> allTasksByUserId = taskRepository.findAll().stream()
-                .filter(t -> t.getUser().getId().equals(userId))
-                .filter(t -> t.isDone() == false)
-                .collect(Collectors.toList());
-        return new PageImpl<>(allTasksByUserId, pageable, allTasksByUserId.size());
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getAllUndoneTasksByUserId(Long userId, Pageable pageable){
+        return recordRows("findAllByUserIdAndDone", taskRepository.findAllDtosByUserIdAndDone(userId, false, pageable));
     }
 
-    public Page<Task> getAllDoneTasksByUserId(Long userId, Pageable pageable){
-        List<Task> allTasksByUserId = taskRepository.findAll().stream()
-                .filter(t -> t.getUser().getId().equals(userId))
-                .filter(t -> t.isDone() == true)
-                .collect(Collectors.toList());
-        return new PageImpl<>(allTasksByUserId, pageable, allTasksByUserId.size());
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getAllDoneTasksByUserId(Long userId, Pageable pageable){
+        return recordRows("findAllByUserIdAndDone", taskRepository.findAllDtosByUserIdAndDone(userId, true, pageable));
     }
 
-    private void exportToFile (Page<Task> tasks, String fileName, OutputStream out) throws IOException {
-        Path dirPath = Paths.get(exportDir);
-        Files.createDirectories(dirPath);
-
-        Path path = dirPath.resolve(fileName);
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Tasks");
-
-            Row headerRow = sheet.createRow(0);
-            headerRow.createCell(0).setCellValue("ID");
-            headerRow.createCell(1).setCellValue("Name");
-            headerRow.createCell(2).setCellValue("Done");
-            headerRow.createCell(3).setCellValue("User ID");
-
-            int rowNum = 1;
-            for (Task task : tasks.getContent()) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(task.getId());
-                row.createCell(1).setCellValue(task.getName());
-                row.createCell(2).setCellValue(task.isDone());
-                row.createCell(3).setCellValue(task.getUser() != null ? task.getUser().getId() : -1);
-            }
-            workbook.write(out);
-        }
+    @Transactional(readOnly = true)
+    public CursorPage<TaskDTO> getTasksAfter(String after, int size) {
+        return CursorPage.of(recordRows("findAfter", taskRepository.findDtosAfter(
+                CursorPage.decode(after), PageRequest.ofSize(size))), TaskDTO::getId);
+    }
 
+    @Transactional(readOnly = true)
+    public CursorPage<TaskDTO> getTasksByStatusAfter(boolean status, String after, int size) {
+        return CursorPage.of(recordRows("findByDoneAfter", taskRepository.findDtosByDoneAfter(
+                status, CursorPage.decode(after), PageRequest.ofSize(size))), TaskDTO::getId);
     }
 
-    public void exportAllTasks(OutputStream out) throws IOException {
-        Page<Task> tasks = getTasks(Pageable.unpaged());
-        exportToFile(tasks, "all_tasks.xlsx", out);
+    @Transactional(readOnly = true)
+    public CursorPage<TaskDTO> getTasksByUserIdAfter(Long userId, String after, int size) {
+        return CursorPage.of(recordRows("findByUserIdAfter", taskRepository.findDtosByUserIdAfter(
+                userId, CursorPage.decode(after), PageRequest.ofSize(size))), TaskDTO::getId);
     }
 
-    public void exportUndoneTasks(OutputStream out) throws IOException {
-        Page<Task> tasks = getUndoneTasks(Pageable.unpaged());
-        exportToFile(tasks, "undone_tasks.xlsx", out);
+    @Transactional(readOnly = true)
+    public CursorPage<TaskDTO> getTasksByUserIdAndStatusAfter(Long userId, boolean status, String after, int size) {
+        return CursorPage.of(recordRows("findByUserIdAndDoneAfter",
+                taskRepository.findDtosByUserIdAndDoneAfter(userId, status,
+                        CursorPage.decode(after), PageRequest.ofSize(size))), TaskDTO::getId);
     }
 
-    public void exportDoneTasks(OutputStream out) throws IOException {
-        Page<Task> tasks = getDoneTasks(Pageable.unpaged());
-        exportToFile(tasks, "done_tasks.xlsx", out);
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> searchTasks(String query, Long userId, Boolean done, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Пустой поисковый запрос");
+        }
+        return recordRows("search", taskRepository.search(query, userId, done, pageable));
     }
 
-    public void exportAllTasksByUserId(Long id, OutputStream out) throws IOException {
-        Page<Task> tasks = getAllTasksByUserId(id, Pageable.unpaged());
-        exportToFile(tasks, "all_tasks_" + id + ".xlsx", out);
+    @Transactional(readOnly = true)
+    public void export(ExportScope scope, Long userId, ExportFormat format, boolean gzip, OutputStream out)
+            throws IOException {
+        TaskExporter exporter = exporters.stream()
+                .filter(e -> e.format() == format)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный формат экспорта: " + format));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CountingOutputStream counted = new CountingOutputStream(out);
+        long[] rows = new long[1];
+        try (Stream<TaskDTO> tasks = streamTasks(scope, userId).peek(t -> rows[0]++)) {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(counted, GZIP_BUFFER_SIZE);
+                exporter.write(tasks, gzipOut);
+                gzipOut.finish();
+            } else {
+                exporter.write(tasks, counted);
+            }
+            counted.flush();
+        } finally {
+            sample.stop(meterRegistry.timer("task.export.duration", "format", format.name(), "scope", scope.name()));
+            meterRegistry.summary("task.export.rows", "format", format.name()).record(rows[0]);
+            meterRegistry.summary("task.export.bytes", "format", format.name()).record(counted.getCount());
+        }
+        log.info("Экспорт {} завершён: {} строк, {} байт", scope.fileName(userId, format, gzip), rows[0],
+                counted.getCount());
     }
 
-    public void exportUndoneTasksByUserId(Long id, OutputStream out) throws IOException {
-        Page<Task> tasks = getAllUndoneTasksByUserId(id, Pageable.unpaged());
-        exportToFile(tasks, "undone_tasks_" + id + ".xlsx", out);
+    private <S extends Slice<?>> S recordRows(String query, S slice) {
+        meterRegistry.summary("task.query.rows", "query", query).record(slice.getNumberOfElements());
+        return slice;
     }
 
-    public void exportDoneTasksByUserId(Long id, OutputStream out) throws IOException {
-        Page<Task> tasks = getAllDoneTasksByUserId(id, Pageable.unpaged());
-        exportToFile(tasks, "done_tasks_" + id + ".xlsx", out);
+    private Stream<TaskDTO> streamTasks(ExportScope scope, Long userId) {
+        if (userId == null) {
+            return switch (scope) {
+                case ALL -> taskRepository.streamAll();
+                case DONE -> taskRepository.streamAllByDone(true);
+                case UNDONE -> taskRepository.streamAllByDone(false);
+            };
+        }
+        return switch (scope) {
+            case ALL -> taskRepository.streamAllByUserId(userId);
+            case DONE -> taskRepository.streamAllByUserIdAndDone(userId, true);
+            case UNDONE -> taskRepository.streamAllByUserIdAndDone(userId, false);
+        };
     }
 }
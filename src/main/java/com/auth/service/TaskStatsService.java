@@ -0,0 +1,44 @@
+package com.auth.service;
+
+import com.auth.dto.TaskStatsDTO;
+import com.auth.repository.TaskStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class TaskStatsService {
+    private final TaskStatsRepository taskStatsRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long userId, long total, long done) {
+        if (userId == null || (total == 0 && done == 0)) {
+            return;
+        }
+        if (taskStatsRepository.increment(userId, total, done) == 0) {
+            taskStatsRepository.insertIfAbsent(userId);
+            taskStatsRepository.increment(userId, total, done);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Map<Long, long[]> deltas) {
+        deltas.forEach((userId, delta) -> apply(userId, delta[0], delta[1]));
+    }
+
+    @Transactional(readOnly = true)
+    public TaskStatsDTO getGlobalStats() {
+        return new TaskStatsDTO(null, taskStatsRepository.sumTotal(), taskStatsRepository.sumDone());
+    }
+
+    @Transactional(readOnly = true)
+    public TaskStatsDTO getUserStats(Long userId) {
+        return taskStatsRepository.findById(userId)
+                .map(s -> new TaskStatsDTO(userId, s.getTotal(), s.getDone()))
+                .orElseGet(() -> new TaskStatsDTO(userId, 0, 0));
+    }
+}
@@ -0,0 +1,157 @@
+package com.auth.service;
+
+import com.auth.entity.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind для смены статуса задач ({@code app.write-behind.enabled}).
+ * <p>
+ * Изменения схлопываются по id задачи (побеждает последнее) и раз в
+ * {@code flush-interval} или по достижении {@code flush-size} записываются через
+ * {@link TaskService#setTasksStatus} — по одному UPDATE ... WHERE id IN (...) на статус.
+ * <p>
+ * Цена: клиент получает 202 до записи в БД, поэтому при падении процесса (не штатной
+ * остановке) теряется не более одного интервала изменений; списки, статистика и SSE-события
+ * видят изменение только после сброса. {@code GET /tasks/{id}} видит собственные изменения
+ * через {@link #overlay}, пока запись в буфере, а после сброса — потому что
+ * {@link TaskService#getTaskById} читает с primary, а не с реплики. При штатной остановке
+ * буфер сбрасывается после остановки веб-сервера.
+ */
+@Component
+@Slf4j
+public class TaskStatusBuffer implements SmartLifecycle {
+    private final TaskService taskService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int flushSize;
+
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean running;
+
+    public TaskStatusBuffer(
+            TaskService taskService,
+            MeterRegistry meterRegistry,
+            @Value("${app.write-behind.enabled:false}") boolean enabled,
+            @Value("${app.write-behind.flush-size:1000}") int flushSize
+    ) {
+        this.taskService = taskService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.flushSize = Math.max(1, flushSize);
+        meterRegistry.gaugeMapSize("task.write_behind.pending", List.of(), pending);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void submit(Long id, boolean done) {
+        pending.put(id, done);
+        if (pending.size() >= flushSize && flushLock.tryLock()) {
+            try {
+                flushPending();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /** Накладывает ещё не записанный статус на задачу, не трогая закэшированный экземпляр. */
+    public Task overlay(Task task) {
+        Boolean done = pending.get(task.getId());
+        if (done == null || done == task.isDone()) {
+            return task;
+        }
+        return new Task(task.getId(), task.getName(), done, task.getVersion() + 1,
+                task.getUpdatedAt(), task.getUser());
+    }
+
+    @Scheduled(fixedDelayString = "${app.write-behind.flush-interval:PT0.2S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Записи остаются в {@code pending} до коммита: иначе {@code GET /tasks/{id}} во время сброса
+     * не видит ни наложения, ни новой строки. Кэш задач сбрасывается после коммита
+     * (см. {@link com.auth.config.CacheConfig}).
+     */
+    private void flushPending() {
+        Map<Long, Boolean> batch = new HashMap<>(pending);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Long> doneIds = new ArrayList<>();
+        List<Long> undoneIds = new ArrayList<>();
+        batch.forEach((id, done) -> (done ? doneIds : undoneIds).add(id));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int updated = 0;
+            if (!doneIds.isEmpty()) {
+                updated += taskService.setTasksStatus(doneIds, true);
+                // более свежие изменения, пришедшие во время сброса, остаются в буфере
+                doneIds.forEach(id -> pending.remove(id, true));
+            }
+            if (!undoneIds.isEmpty()) {
+                updated += taskService.setTasksStatus(undoneIds, false);
+                undoneIds.forEach(id -> pending.remove(id, false));
+            }
+            meterRegistry.summary("task.write_behind.batch").record(batch.size());
+            log.debug("Write-behind: сброшено {} изменений, обновлено строк {}", batch.size(), updated);
+        } catch (RuntimeException e) {
+            log.error("Write-behind: не удалось сбросить {} изменений, повтор при следующем сбросе",
+                    batch.size(), e);
+        } finally {
+            sample.stop(meterRegistry.timer("task.write_behind.flush"));
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        flush();
+        running = false;
+        if (!pending.isEmpty()) {
+            log.error("Write-behind: при остановке не записано {} изменений статуса", pending.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Останавливаемся после веб-сервера, чтобы сбросить и последние принятые запросы. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -4,22 +4,35 @@ import com.auth.dto.UserDTO;
 import com.auth.entity.User;
 import com.auth.exception.PasswordNotMatchesException;
 import com.auth.repository.UserRepository;
+import com.auth.security.CredentialCheckCache;
 import com.auth.security.JwtTokenProvider;
+import com.auth.security.LoginRateLimiter;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
 @AllArgsConstructor
+@Slf4j
 public class UserService {
+    private static final String USERS_CACHE = "usersByUsername";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LoginRateLimiter loginRateLimiter;
+    private final CredentialCheckCache credentialCheckCache;
+    private final CacheManager cacheManager;
 
     public String generateToken(UserDTO userDTO) {
         Optional<User> optionalUser = userRepository.findByUsername(userDTO.getUsername());
@@ -27,12 +40,41 @@ public class UserService {
             throw new UsernameNotFoundException("Пользователь не найден: " + userDTO.getUsername());
         }
         User user = optionalUser.get();
-        if (!passwordEncoder.matches(userDTO.getPassword(), user.getPassword())) {
+        checkPassword(user, userDTO.getPassword());
+        return jwtTokenProvider.generateToken(userDTO.getUsername(), user.getRoles());
+    }
+
+    private void checkPassword(User user, String rawPassword) {
+        if (rawPassword == null) {
             throw new PasswordNotMatchesException("Неверный пароль: " + user.getUsername());
         }
-        return jwtTokenProvider.generateToken(userDTO.getUsername(), user.getRoles());
+        if (credentialCheckCache.isVerified(user.getUsername(), rawPassword, user.getPassword())) {
+            return;
+        }
+        loginRateLimiter.acquire(user.getUsername());
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            throw new PasswordNotMatchesException("Неверный пароль: " + user.getUsername());
+        }
+        String hash = user.getPassword();
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            hash = rehash(user, rawPassword);
+        }
+        credentialCheckCache.markVerified(user.getUsername(), rawPassword, hash);
+    }
+
+    /** Экземпляр {@code user} может лежать в кэше и быть общим, поэтому он не меняется. */
+    private String rehash(User user, String rawPassword) {
+        String hash = passwordEncoder.encode(rawPassword);
+        userRepository.updatePassword(user.getId(), hash);
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        if (cache != null) {
+            cache.evict(user.getUsername());
+        }
+        log.info("Хэш пароля пользователя {} обновлён", user.getUsername());
+        return hash;
     }
 
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#user.username")
     public User save(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         return userRepository.save(user);
@@ -43,18 +85,23 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
     }
 
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#user.username")
     public User updateUser(User user) {
-        User userInDataBase = getUser(user.getUsername());
+        // getUser отдаёт общий экземпляр из кэша — изменяем свежую копию из БД
+        User userInDataBase = userRepository.findById(getUser(user.getUsername()).getId())
+                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + user.getUsername()));
         userInDataBase.setUsername(user.getUsername());
         userInDataBase.setPassword(passwordEncoder.encode(user.getPassword()));
         userInDataBase.setRoles(user.getRoles());
         return userRepository.save(userInDataBase);
     }
 
+    @Transactional(readOnly = true)
     public Page<User> allUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
 
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#username")
     public void deleteUser(String username) {
         User user = getUser(username);
         userRepository.delete(user);